@@ -0,0 +1,22 @@
+package fr.insa;
+
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+//run the benchmarks from the project directory and write their results as JSON, to be compared between two versions
+//arguments : [result file, bench-results.json by default] [number of documents of the synthetic corpus]
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException {
+        String resultFile = args.length > 0 ? args[0] : "bench-results.json";
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .include("fr\\.insa\\..*Benchmark")
+                .resultFormat(ResultFormatType.JSON)
+                .result(resultFile);
+        if (args.length > 1) options.param("numberOfDocuments", args[1]);
+        new Runner(options.build()).run();
+    }
+}
@@ -0,0 +1,98 @@
+package fr.insa;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//throughput of the inverted index table : bulk insert of the postings of the corpus, and load by the Evaluator
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+public class DatabaseBenchmark {
+
+    @Param({"200"})
+    public int numberOfDocuments;
+
+    private File directory;
+    private Database db;
+    private List<String> documents;
+    private List<Map<String, Double>> postings; //document -> word -> frequency
+
+    @Setup
+    public void setUp() throws IOException, SQLException {
+        TermDictionary dictionary = new TermDictionary();
+        Parser parser = new Parser(null, dictionary, null, 1.1, true, 1, false);
+        SyntheticCorpus corpus = new SyntheticCorpus(42);
+        documents = new ArrayList<>();
+        postings = new ArrayList<>();
+        for (int document = 0; document < numberOfDocuments; document++) {
+            Document html = Jsoup.parse(corpus.nextDocument());
+            List<Elements> headAndBody = new ArrayList<>();
+            headAndBody.add(html.head().select("*"));
+            headAndBody.add(html.body().select("*"));
+            IntDoubleMap ngramFreq = parser.cleanDoc(headAndBody);
+            Map<String, Double> words = new LinkedHashMap<>();
+            for (int n = 0; n < ngramFreq.size(); n++) {
+                words.put(dictionary.getTerm(ngramFreq.getKey(n)), ngramFreq.getValue(n));
+            }
+            documents.add("D" + (document + 1) + ".html");
+            postings.add(words);
+        }
+        directory = Files.createTempDirectory("database").toFile();
+        db = new Database(new File(directory, "database").getPath());
+        insertInvertedIndex();
+    }
+
+    @TearDown
+    public void tearDown() {
+        db.close();
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    //the whole corpus in one bulk load, as Parser.parseHtmlDocuments does
+    @Benchmark
+    public void insertInvertedIndex() throws SQLException {
+        db.deleteInvertedIndex();
+        db.createInvertedIndex();
+        db.beginBulkLoad();
+        boolean loaded = false;
+        try {
+            for (int document = 0; document < documents.size(); document++) {
+                db.prepareInvertedIndexStatement();
+                for (Map.Entry<String, Double> wordFreq : postings.get(document).entrySet()) {
+                    db.addToInvertedIndex(wordFreq.getKey(), documents.get(document), wordFreq.getValue());
+                }
+                db.executePreparedStatement();
+            }
+            loaded = true;
+        } finally {
+            if (!loaded) db.abortBulkLoad();
+        }
+        db.endBulkLoad();
+    }
+
+    @Benchmark
+    public Map<String, Map<String, Double>> loadInvertedIndex() throws SQLException {
+        return db.getInvertedIndex();
+    }
+}
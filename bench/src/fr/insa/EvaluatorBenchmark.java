@@ -0,0 +1,109 @@
+package fr.insa;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/* scoring of a request for each similarity : generateResults, then calculateSimilarity of each document
+ *    the synthetic corpus is indexed on a segment, whose postings are all kept on the PostingsCache after the
+ *    first request : the benchmark measures the scoring, not the reading of the segment
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class EvaluatorBenchmark {
+
+    private static final int NUMBER_OF_REQUESTS = 50;
+
+    @Param({"1000"})
+    public int numberOfDocuments;
+
+    @Param({"cosinus", "jaccard", "dice", "scalar"})
+    public String similarity;
+
+    private File directory;
+    private Evaluator evaluator;
+    private List<Map<String, Double>> requests;
+    private int next;
+
+    @Setup
+    public void setUp() throws IOException {
+        TermDictionary dictionary = new TermDictionary();
+        Weighting weighting = Settings.getWeighting();
+        directory = Files.createTempDirectory("segment").toFile();
+        writeSegment(directory, dictionary, weighting, numberOfDocuments);
+
+        evaluator = new Evaluator(null, dictionary, numberOfDocuments, true, similarity.equals("cosinus"),
+                similarity.equals("jaccard"), similarity.equals("dice"), false, false, false, true, true, 1);
+        evaluator.setPostingsCache(new PostingsCache(1L << 30));
+        evaluator.initialize(new SegmentReader(directory.getPath()));
+        SyntheticCorpus corpus = new SyntheticCorpus(7);
+        Stemmer stemmer = new Stemmer();
+        requests = new ArrayList<>();
+        for (int r = 0; r < NUMBER_OF_REQUESTS; r++) {
+            requests.add(corpus.nextRequest(1 + r % 4, stemmer));
+            evaluator.rank(requests.get(r)); // loads the postings
+        }
+    }
+
+    //index the synthetic documents as the Parser does, n-grams included
+    static void writeSegment(File directory, TermDictionary dictionary, Weighting weighting, int numberOfDocuments) throws IOException {
+        Parser parser = new Parser(null, dictionary, null, 1.1, true, 1, false);
+        SegmentWriter writer = new SegmentWriter(directory.getPath(), dictionary, weighting);
+        SyntheticCorpus corpus = new SyntheticCorpus(42);
+        for (int document = 0; document < numberOfDocuments; document++) {
+            Document html = Jsoup.parse(corpus.nextDocument());
+            List<Elements> headAndBody = new ArrayList<>();
+            headAndBody.add(html.head().select("*"));
+            headAndBody.add(html.body().select("*"));
+            IntDoubleMap ngramFreq = parser.cleanDoc(headAndBody);
+            int id = writer.addDocument("D" + (document + 1) + ".html");
+            for (int n = 0; n < ngramFreq.size(); n++) {
+                int ngram = ngramFreq.getKey(n);
+                double freq = ngramFreq.getValue(n);
+                writer.addPosting(ngram, id, dictionary.getLength(ngram) > 1 ? freq * 1.1 : freq);
+            }
+        }
+        writer.write(numberOfDocuments, 1);
+    }
+
+    @TearDown
+    public void tearDown() {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+
+    private Map<String, Double> nextRequest() {
+        next = next + 1 == NUMBER_OF_REQUESTS ? 0 : next + 1;
+        return requests.get(next);
+    }
+
+    //all the documents : generateResults and calculateSimilarity of each one, without pruning
+    @Benchmark
+    public Ranking rank() {
+        return evaluator.rank(nextRequest());
+    }
+
+    //the 10 best documents, with MaxScore pruning when the similarity allows it
+    @Benchmark
+    public Ranking searchTop10() {
+        return evaluator.search(nextRequest(), 10);
+    }
+}
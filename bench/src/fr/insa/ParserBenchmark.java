@@ -0,0 +1,92 @@
+package fr.insa;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.select.Elements;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+//parsing of a document : cleaning (tokenization, stopwords, stemming), n-grams and tag weights of cleanDoc
+//run from the project directory : the Parser reads the stopwords on in/
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class ParserBenchmark {
+
+    @Param({"200"})
+    public int numberOfDocuments;
+
+    private Parser parser;
+    private String[] texts; //text of each document
+    private int[][] words; //stemmed words of each document
+    private List<List<Elements>> elements; //head and body of each document
+    private String[] surfaceForms; //words of the documents, before stemming
+    private Stemmer stemmer;
+    private Stemmer cachedStemmer;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        parser = new Parser(null, new TermDictionary(), null, 1.1, true, 1, false);
+        SyntheticCorpus corpus = new SyntheticCorpus(42);
+        texts = new String[numberOfDocuments];
+        words = new int[numberOfDocuments][];
+        elements = new ArrayList<>();
+        List<String> forms = new ArrayList<>();
+        for (int document = 0; document < numberOfDocuments; document++) {
+            Document html = Jsoup.parse(corpus.nextDocument());
+            texts[document] = html.text();
+            words[document] = parser.clean(texts[document]);
+            List<Elements> headAndBody = new ArrayList<>();
+            headAndBody.add(html.head().select("*"));
+            headAndBody.add(html.body().select("*"));
+            elements.add(headAndBody);
+            for (String form : texts[document].split("[\\s\\p{P}]+")) {
+                if (!form.isEmpty()) forms.add(form.toLowerCase());
+            }
+        }
+        surfaceForms = forms.toArray(new String[0]);
+        stemmer = new Stemmer();
+        cachedStemmer = new Stemmer(new StemCache(1 << 18));
+    }
+
+    private int nextDocument() {
+        next = next + 1 == numberOfDocuments ? 0 : next + 1;
+        return next;
+    }
+
+    @Benchmark
+    public int[] clean() {
+        return parser.clean(texts[nextDocument()]);
+    }
+
+    @Benchmark
+    public int[] getNGramList() {
+        return parser.getNGramList(words[nextDocument()]);
+    }
+
+    @Benchmark
+    public IntDoubleMap cleanDoc() {
+        return parser.cleanDoc(elements.get(nextDocument()));
+    }
+
+    //one word per operation
+    @Benchmark
+    public String stem() {
+        next = next + 1 == surfaceForms.length ? 0 : next + 1;
+        return stemmer.stem(surfaceForms[next]);
+    }
+
+    //one word per operation, through a StemCache as the Parser does
+    @Benchmark
+    public String stemWithCache() {
+        next = next + 1 == surfaceForms.length ? 0 : next + 1;
+        return cachedStemmer.stem(surfaceForms[next]);
+    }
+}
@@ -0,0 +1,103 @@
+package fr.insa;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.*;
+
+/* synthetic French HTML documents and requests for the benchmarks, the same ones for the same seed
+ *    the words follow a Zipf distribution, like the words of a real corpus : stopwords, inflected forms and accents
+ *    the documents have the tags weighted by the Parser (title, h2, h3, b, p)
+ */
+public class SyntheticCorpus {
+
+    private static final String[] WORDS = {
+            "de", "la", "le", "et", "les", "des", "en", "un", "une", "du", "dans", "pour", "qui", "que", "sur", "est",
+            "film", "films", "cinéma", "cinémas", "acteur", "acteurs", "actrice", "réalisateur", "réalisatrice", "scène",
+            "scènes", "théâtre", "théâtres", "opéra", "musique", "musiques", "musicien", "musiciens", "danse", "danseuse",
+            "festival", "festivals", "spectacle", "spectacles", "comédie", "comédies", "drame", "drames", "histoire",
+            "histoires", "personnage", "personnages", "public", "critique", "critiques", "succès", "tournage", "tourné",
+            "tournée", "produit", "production", "producteur", "sortie", "sorti", "sortira", "récompensé", "récompense",
+            "prix", "palme", "cannes", "paris", "france", "français", "française", "européen", "européenne", "année",
+            "années", "siècle", "première", "premier", "dernier", "dernière", "grand", "grande", "nouveau", "nouvelle",
+            "célèbre", "célèbres", "jeune", "jeunes", "écrit", "écrite", "écrivain", "roman", "romans", "livre", "livres",
+            "adaptation", "adapté", "intouchables", "bienvenue", "chtis", "ennemis", "amitié", "amour", "guerre", "paix",
+            "école", "élève", "élèves", "professeur", "enfant", "enfants", "famille", "familles", "été", "hiver",
+            "génération", "générations", "télévision", "série", "séries", "épisode", "épisodes", "chaîne", "émission"
+    };
+
+    private Random random;
+    private double[] cumulatedProbabilities; //Zipf distribution of the words
+
+    public SyntheticCorpus(long seed) {
+        random = new Random(seed);
+        cumulatedProbabilities = new double[WORDS.length];
+        double sum = 0.0;
+        for (int w = 0; w < WORDS.length; w++) {
+            sum += 1.0 / (w + 1);
+            cumulatedProbabilities[w] = sum;
+        }
+        for (int w = 0; w < WORDS.length; w++) {
+            cumulatedProbabilities[w] /= sum;
+        }
+    }
+
+    //write numberOfDocuments documents D1.html, D2.html... on the folder, to be indexed like the real corpus
+    //arguments : folder, number of documents
+    public static void main(String[] args) throws IOException {
+        File folder = new File(args.length > 0 ? args[0] : "in/corpus-synthetic");
+        int numberOfDocuments = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        if (!folder.isDirectory() && !folder.mkdirs()) throw new IOException("Cannot create the directory " + folder);
+        SyntheticCorpus corpus = new SyntheticCorpus(42);
+        for (int document = 1; document <= numberOfDocuments; document++) {
+            Files.write(new File(folder, "D" + document + ".html").toPath(), corpus.nextDocument().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    public String nextWord() {
+        int w = Arrays.binarySearch(cumulatedProbabilities, random.nextDouble());
+        return WORDS[Math.min(w >= 0 ? w : -w - 1, WORDS.length - 1)];
+    }
+
+    //numberOfWords words separated by spaces and punctuation
+    public String nextText(int numberOfWords) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < numberOfWords; i++) {
+            if (i > 0) text.append(random.nextInt(12) == 0 ? ", " : " ");
+            text.append(nextWord());
+        }
+        return text.append('.').toString();
+    }
+
+    //html document of a few hundred words
+    public String nextDocument() {
+        StringBuilder html = new StringBuilder("<!DOCTYPE html>\n<html>\n<head>\n<meta charset=\"utf-8\">\n");
+        html.append("<title>").append(nextText(6)).append("</title>\n</head>\n<body>\n");
+        html.append("<h2>").append(nextText(5)).append("</h2>\n");
+        int numberOfParagraphs = 2 + random.nextInt(8);
+        for (int p = 0; p < numberOfParagraphs; p++) {
+            if (random.nextInt(3) == 0) html.append("<h3>").append(nextText(4)).append("</h3>\n");
+            html.append("<p>").append(nextText(20 + random.nextInt(60)));
+            html.append(" <b>").append(nextText(2)).append("</b></p>\n");
+        }
+        return html.append("</body>\n</html>\n").toString();
+    }
+
+    /*Arguments
+     *  numberOfWords : number of main words of the request, each one has a synonym
+     *  stemmer : stems the words as the Parser does
+     */
+    /*Return
+     *  request<stemmed WORD, WEIGHT of the word on the request> : 1 for a main word, 0.5 for a synonym
+     */
+    public Map<String, Double> nextRequest(int numberOfWords, Stemmer stemmer) {
+        Map<String, Double> request = new LinkedHashMap<>();
+        for (int i = 0; i < numberOfWords; i++) {
+            // skip the stopwords, which the Parser removes
+            request.put(stemmer.stem(WORDS[16 + random.nextInt(WORDS.length - 16)]), 1.0);
+            request.putIfAbsent(stemmer.stem(WORDS[16 + random.nextInt(WORDS.length - 16)]), 0.5);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,76 @@
+package fr.insa;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.util.*;
+
+//analysis chain of the documents and of the queries : lower case words without punctuation, numbers nor stopwords
+//(Tokenizer), stemmed (Stemmer), interned on a dictionary, then their 1-grams and 2-grams
+//the Parser of the indexer and the QueryAnalyzer both use it : the terms of a query are the ones of the documents
+//thread safe : one tokenizer and one stemmer per thread
+public class Analyzer {
+
+    private static final String[] STOPWORDS_FILES = {"in/stopwords_fr.txt", "in/stopwords_fr2.txt", "in/stopwords_fr3.txt"};
+    private static final int NGRAM = 2; //the longest n-grams
+
+    private ThreadLocal<Tokenizer> tokenizers; //not thread safe : one per thread
+    private ThreadLocal<Stemmer> stemmers; //the snowball stemmer is not thread safe : one per thread
+
+    //stemCache : stems of the words, shared by the stemmers
+    public Analyzer(Set<String> stopwords, StemCache stemCache) {
+        tokenizers = ThreadLocal.withInitial(() -> new Tokenizer(stopwords));
+        stemmers = ThreadLocal.withInitial(() -> new Stemmer(stemCache));
+    }
+
+    //the stopwords of the files of in/, a missing file is skipped
+    public static Set<String> loadStopwords() {
+        Set<String> stopwords = new HashSet<>();
+        for (String filename : STOPWORDS_FILES) {
+            try (Scanner inFile = new Scanner(new File(filename))) {
+                while (inFile.hasNext()) {
+                    stopwords.add(inFile.nextLine());
+                }
+            } catch (FileNotFoundException e) {
+                e.printStackTrace();
+            }
+        }
+        return stopwords;
+    }
+
+    //return the ids of the stemmed words of the text, interned on the dictionary
+    public int[] clean(String text, TermDictionary dictionary) {
+        List<String> wordsList = tokenizers.get().tokenize(text); // lower case words without punctuation nor stopwords
+        Stemmer stemmer = stemmers.get();
+        int[] words = new int[wordsList.size()];
+        for (int i = 0; i < words.length; i++) {
+            words[i] = dictionary.intern(stemmer.stem(wordsList.get(i)));
+        }
+        return words;
+    }
+
+    //return the ids of the 1-grams, then of the 2-grams... of the words, interned on the dictionary of the words
+    public int[] getNGramList(int[] wordsList, TermDictionary dictionary) {
+        int numberOfNGrams = 0;
+        for (int n = 1; n <= NGRAM; n++) {
+            numberOfNGrams += Math.max(0, wordsList.length - n + 1);
+        }
+        int[] ngramsList = new int[numberOfNGrams];
+        int i = 0;
+        for (int n = 1; n <= NGRAM; n++) {
+            i = makeNGrams(wordsList, n, ngramsList, i, dictionary);
+        }
+        return ngramsList;
+    }
+
+    //write the ids of the n-grams of the words on ngrams from the index start, return the index following the last one
+    private static int makeNGrams(int[] wordsList, int n, int[] ngrams, int start, TermDictionary dictionary) {
+        for (int i = 0; i < wordsList.length - n + 1; i++) {
+            int phrase = wordsList[i];
+            for (int j = 1; j < n; j++) {
+                phrase = dictionary.intern(phrase, wordsList[i + j]);
+            }
+            ngrams[start++] = phrase;
+        }
+        return start;
+    }
+}
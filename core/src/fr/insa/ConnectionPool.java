@@ -0,0 +1,106 @@
+package fr.insa;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+
+//small pool of long-lived connections to a SQLite database, safe to use from several threads
+//each connection keeps its prepared statements by sql, so a query is only compiled once per connection
+public class ConnectionPool {
+
+    //a connection borrowed by one thread at a time, with its prepared statements
+    public static class PooledConnection {
+        private Connection connection;
+        private Map<String, PreparedStatement> statements;
+
+        private PooledConnection(Connection connection) {
+            this.connection = connection;
+            this.statements = new HashMap<>();
+        }
+
+        //the statement must be used (and its result sets closed) before the connection is released
+        public PreparedStatement prepare(String sql) throws SQLException {
+            PreparedStatement statement = statements.get(sql);
+            if (statement == null) {
+                statement = connection.prepareStatement(sql);
+                statements.put(sql, statement);
+            }
+            return statement;
+        }
+
+        private void close() {
+            for (PreparedStatement statement : statements.values()) {
+                try {
+                    statement.close();
+                } catch (SQLException e) {
+                    e.printStackTrace();
+                }
+            }
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private String url;
+    private int size;
+    private BlockingQueue<PooledConnection> idle;
+    private List<PooledConnection> connections; //all the opened connections
+
+    public ConnectionPool(String url, int size) {
+        this.url = url;
+        this.size = Math.max(1, size);
+        this.idle = new LinkedBlockingQueue<>();
+        this.connections = new ArrayList<>();
+    }
+
+    //return an idle connection, open a new one if there is less than size, or wait for one to be released
+    public PooledConnection borrow() throws SQLException {
+        PooledConnection connection = idle.poll();
+        if (connection != null) return connection;
+        synchronized (this) {
+            if (connections.size() < size) {
+                connection = new PooledConnection(open());
+                connections.add(connection);
+                return connection;
+            }
+        }
+        try {
+            return idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while waiting for a connection", e);
+        }
+    }
+
+    public void release(PooledConnection connection) {
+        idle.add(connection);
+    }
+
+    //close all the connections, they must have been released
+    public synchronized void close() {
+        for (PooledConnection connection : connections) {
+            connection.close();
+        }
+        connections.clear();
+        idle.clear();
+    }
+
+    private Connection open() throws SQLException {
+        try {
+            Class.forName("org.sqlite.JDBC");
+        } catch (ClassNotFoundException e) {
+            throw new SQLException("SQLite driver not found", e);
+        }
+        return DriverManager.getConnection(url);
+    }
+}
@@ -0,0 +1,583 @@
+package fr.insa;
+
+import java.sql.*;
+import java.util.*;
+
+public class Database {
+
+    //read the rows of a query result
+    private interface ResultSetReader<T> {
+        T read(ResultSet rs) throws SQLException;
+    }
+
+    /*
+    *
+    * 1) Inverted Index Table        : line 60
+    * 2) IDF Table                   : line 146
+    * 3) Requests Table               : line 197
+    * 4) Requests results Table       : line 237
+    * 5) Documents Table              : line 278
+    * 6) Generation Table             : line 348
+    * 7) Database Management methods  : line 373
+    * */
+
+    private Connection db;
+    private PreparedStatement prep;
+    private Connection bulkConnection; //not null during a bulk load
+    private Map<String, PreparedStatement> bulkStatements; //prepared statements of the bulk load by sql
+    private ConnectionPool pool; //connections of the read methods, with their prepared statements
+    private String dbName;
+    private String invertedIndexTable;
+    private String requestsTable;
+    private String requestsResultsTable;
+    private String idfTable;
+    private String documentsTable;
+    private String generationTable;
+    private Metrics.Timer batchTimer; //if not null, records the duration of each executed batch
+
+    //initialization of the database
+    public Database(String dbName) {
+        this(dbName, 4);
+    }
+
+    //poolSize : number of connections used by the read methods, i.e. of threads reading at the same time
+    public Database(String dbName, int poolSize) {
+        this.dbName = dbName;
+        this.pool = new ConnectionPool("jdbc:sqlite:" + dbName + ".db", poolSize);
+        this.invertedIndexTable = "InvertedIndex";
+        this.requestsTable = "Requests";
+        this.requestsResultsTable = "RequestsResults";
+        this.idfTable = "IDF";
+        this.documentsTable = "Documents";
+        this.generationTable = "Generation";
+    }
+
+    //the durations of the executed batches are recorded on the timer db_batch of metrics, if not null
+    public void setMetrics(Metrics metrics) {
+        batchTimer = metrics != null ? metrics.timer("db_batch") : null;
+    }
+
+    // 1) **************************************** Inverted Index Table ************************************************
+    // Creation of the inverted index
+    //WORD
+    //DOCUMENT
+    //FREQ : the frequency of the word on a document
+    //the key (WORD, DOCUMENT) is a separated unique index, dropped during a bulk load
+    public void createInvertedIndex() {
+        String sql = "CREATE TABLE " + invertedIndexTable + " " +
+                "(WORD      TEXT    NOT NULL," +
+                " DOCUMENT  TEXT    NOT NULL," +
+                " FREQ      REAL    NOT NULL);";
+        createTable(invertedIndexTable, sql);
+        createInvertedIndexKey();
+    }
+
+    private void createInvertedIndexKey() {
+        this.openDB();
+        Statement statement = null;
+        try {
+            statement = this.db.createStatement();
+            statement.executeUpdate(invertedIndexKeySql());
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            this.closeQuietly(statement);
+            this.closeQuietly(this.db);
+        }
+    }
+
+    private String invertedIndexKeySql() {
+        return "CREATE UNIQUE INDEX IF NOT EXISTS " + invertedIndexTable + "Key ON " + invertedIndexTable + " (WORD, DOCUMENT);";
+    }
+    // delete  inverted index
+    public void deleteInvertedIndex() {
+        deleteTable(invertedIndexTable);
+    }
+
+    //prepared statement to insert a record into the inverted index
+    public void prepareInvertedIndexStatement() throws SQLException {
+        String sql = "INSERT INTO " + invertedIndexTable + " (WORD, DOCUMENT, FREQ) VALUES(?,?,?);";
+        prepareInsertStatement(sql);
+    }
+
+    //add  a record to the inverted index
+    public void addToInvertedIndex(String word, String document, double frequency) throws SQLException {
+        prep.setString(1, word);
+        prep.setString(2, document);
+        prep.setDouble(3, frequency);
+        prep.addBatch();
+    }
+
+    //get the frequency of a word  in a document using the inverted index
+    public int getFreq(String word, String document) throws SQLException {
+        String sql = "SELECT FREQ FROM " + invertedIndexTable + " WHERE WORD=? AND DOCUMENT=?;";
+        return getInt(sql, "FREQ", word, document);
+    }
+
+    //get the frequency of a word  in all documents using the inverted index
+    public int getAbsoluteFreq(String word) throws SQLException {
+        String sql = "SELECT SUM(FREQ) AS SUM FROM " + invertedIndexTable + " WHERE WORD=?;";
+        return getInt(sql, "SUM", word);
+    }
+
+    //method used in the methods getFreq/2 and getAbsoluteFreq/1 to get the frequency of a word form the inverted Index table
+    //throw a SQLException if there is no record
+    private int getInt(String sql, String column, String... parameters) throws SQLException {
+        return query(sql, rs -> {
+            if (!rs.next()) throw new SQLException("No " + column + " found");
+            return rs.getInt(column);
+        }, parameters);
+    }
+
+    //Map<Document,Map<WORD,FREQUENCY of the word on the document>>
+    public Map<String, Map<String, Double>> getInvertedIndex() throws SQLException {
+        return query("SELECT * FROM " + invertedIndexTable, rs -> {
+            // Map with document - Map of word - freq
+            Map<String, Map<String, Double>> invertedIndex = new HashMap<>();
+            while (rs.next()) {
+                if (!invertedIndex.containsKey(rs.getString("DOCUMENT")))
+                    invertedIndex.put(rs.getString("DOCUMENT"), new HashMap<>());
+                invertedIndex.get(rs.getString("DOCUMENT")).put(rs.getString("WORD"), rs.getDouble("FREQ"));
+            }
+            return invertedIndex;
+        });
+    }
+
+    // 2) **************************************** IDF Table ***********************************************************
+    //WORD
+    //IDF: number of the documents the word is present
+    public void createIDFTable() {
+        String sql = "CREATE TABLE " + idfTable + " " +
+                "(WORD  TEXT    PRIMARY KEY    NOT NULL," +
+                " IDF   INT                    NOT NULL);";
+        createTable(idfTable, sql);
+    }
+
+    public void deleteIDFTable() {
+        deleteTable(idfTable);
+    }
+
+    public void prepareIDFStatement() throws SQLException {
+        String sql = "INSERT INTO " + idfTable + " (WORD, IDF) VALUES(?,?);";
+        prepareInsertStatement(sql);
+    }
+
+    public void addToIDFTable(String word, int frequency) throws SQLException {
+        prep.setString(1, word);
+        prep.setInt(2, frequency);
+        prep.addBatch();
+    }
+
+    public Map<String, Integer> getIdfs() throws SQLException {
+        return query("SELECT * FROM " + idfTable, rs -> {
+            // Map with word - IDF
+            Map<String, Integer> idfs = new HashMap<>();
+            while (rs.next()) {
+                idfs.put(rs.getString("WORD"), rs.getInt("IDF"));
+            }
+            return idfs;
+        });
+    }
+
+
+    //argument : a requestID  Q1,Q2..Q11
+    //return : Map<WORD, WEIGHT of the word on the request (main word,synonym..etc)>
+
+    public Map<String, Double> getRequestWords(String requestID) throws SQLException {
+        return query("SELECT WORD, WEIGHT FROM " + requestsTable + " WHERE REQ_ID=?", rs -> {
+            // List of words of the request
+            Map<String, Double> requestWords = new HashMap<>();
+            while (rs.next()) {
+                requestWords.put(rs.getString("WORD"), rs.getDouble("WEIGHT"));
+            }
+            return requestWords;
+        }, requestID);
+    }
+
+    // 3) **************************************** Requests Table ******************************************************
+    //REQ_ID --> Q1 or Q2.... Q11
+    //Word
+    //WEIGHT  of the words & synonyms  (part 4 for the semantic search engine )
+    public void createRequestsTable() {
+        String sql = "CREATE TABLE " + requestsTable + " " +
+                "(REQ_ID    TEXT    NOT NULL," +
+                " WORD      TEXT    NOT NULL," +
+                 "WEIGHT    REAL    NOT NULL,"+
+                " PRIMARY KEY (REQ_ID, WORD));";
+        createTable(requestsTable, sql);
+    }
+
+    public void deleteRequestsTable() {
+        deleteTable(requestsTable);
+    }
+
+    public void prepareRequestsStatement() throws SQLException {
+        String sql = "INSERT INTO " + requestsTable + " (REQ_ID, WORD, WEIGHT) VALUES(?,?,?);";
+        prepareInsertStatement(sql);
+    }
+
+    //a word must only be added once per request
+    public void addToRequests(String id, String word, double weight) throws SQLException {
+        prep.setString(1, id);
+        prep.setString(2, word);
+        prep.setDouble(3, weight);
+        prep.addBatch();
+    }
+
+    public Set<String> getRequestsID() throws SQLException {
+        return query("SELECT REQ_ID FROM " + requestsTable + ";", rs -> {
+            Set<String> requestsIDs = new HashSet<>();
+            while (rs.next()) {
+                requestsIDs.add(rs.getString("REQ_ID"));
+            }
+            return requestsIDs;
+        });
+    }
+
+    // 4) **************************************** Requests results Table **********************************************
+    //REQ_ID --> Q1 or Q2.... Q11
+    //DOCUMENT
+    //RESULT : 1 if the document is relevant for the request ,0 else
+    public void createRequestsResultsTable() {
+        String sql = "CREATE TABLE " + requestsResultsTable + " " +
+                "(REQ_ID    TEXT    NOT NULL," +
+                " DOCUMENT  TEXT    NOT NULL," +
+                " RESULT    INTEGER NOT NULL," +
+                " PRIMARY KEY (REQ_ID, DOCUMENT));";
+        createTable(requestsResultsTable, sql);
+    }
+
+    public void deleteRequestsResultsTable() {
+        deleteTable(requestsResultsTable);
+    }
+
+    public void prepareRequestsResultsStatement() throws SQLException {
+        String sql = "INSERT INTO " + requestsResultsTable + " (REQ_ID, DOCUMENT, RESULT) VALUES(?,?,?);";
+        prepareInsertStatement(sql);
+    }
+
+    public void addToRequestsResults(String request, String document, int result) throws SQLException {
+        prep.setString(1, request);
+        prep.setString(2, document);
+        prep.setInt(3, result);
+        prep.addBatch();
+    }
+
+
+    public List<String> getRequestResults(String requestID) throws SQLException {
+        return query("SELECT DOCUMENT FROM " + requestsResultsTable + " RR WHERE RR.REQ_ID=? AND RR.RESULT=1", rs -> {
+            // List of pertinents documents for the request
+            List<String> requestResults = new ArrayList<>();
+            while (rs.next()) {
+                requestResults.add(rs.getString("DOCUMENT"));
+            }
+            return requestResults;
+        }, requestID);
+    }
+
+    // 5) **************************************** Documents Table *****************************************************
+    //DOCUMENT
+    //MODIFIED : modification date of the file when it was indexed (ms)
+    //SIZE : size of the file when it was indexed (bytes)
+    //HASH : SHA-1 of the file content when it was indexed
+    public void createDocumentsTable() {
+        String sql = "CREATE TABLE " + documentsTable + " " +
+                "(DOCUMENT  TEXT    PRIMARY KEY    NOT NULL," +
+                " MODIFIED  INTEGER                NOT NULL," +
+                " SIZE      INTEGER                NOT NULL," +
+                " HASH      TEXT                   NOT NULL);";
+        createTable(documentsTable, sql);
+    }
+
+    public void deleteDocumentsTable() {
+        deleteTable(documentsTable);
+    }
+
+    //a new version of a document replaces the previous one
+    public void prepareDocumentsStatement() throws SQLException {
+        String sql = "INSERT OR REPLACE INTO " + documentsTable + " (DOCUMENT, MODIFIED, SIZE, HASH) VALUES(?,?,?,?);";
+        prepareInsertStatement(sql);
+    }
+
+    public void addToDocuments(DocumentVersion version) throws SQLException {
+        prep.setString(1, version.getDocument());
+        prep.setLong(2, version.getModified());
+        prep.setLong(3, version.getSize());
+        prep.setString(4, version.getHash());
+        prep.addBatch();
+    }
+
+    //Map<DOCUMENT, version of the document when it was indexed>
+    public Map<String, DocumentVersion> getDocumentVersions() throws SQLException {
+        return query("SELECT * FROM " + documentsTable, rs -> {
+            Map<String, DocumentVersion> versions = new HashMap<>();
+            while (rs.next()) {
+                String document = rs.getString("DOCUMENT");
+                versions.put(document, new DocumentVersion(document, rs.getLong("MODIFIED"), rs.getLong("SIZE"), rs.getString("HASH")));
+            }
+            return versions;
+        });
+    }
+
+    //number of documents of the inverted index, 0 if the documents table has never been filled
+    public int getNumberOfDocuments() throws SQLException {
+        boolean created = query("SELECT name FROM sqlite_master WHERE type='table' AND name=?", ResultSet::next, documentsTable);
+        if (!created) return 0;
+        return query("SELECT COUNT(*) AS COUNT FROM " + documentsTable, rs -> rs.next() ? rs.getInt("COUNT") : 0);
+    }
+
+    //remove a document from the inverted index and the documents table, and its words from the IDF table
+    public void removeDocument(String document) throws SQLException {
+        executeUpdates(document,
+                "UPDATE " + idfTable + " SET IDF = IDF - 1 WHERE WORD IN " +
+                        "(SELECT WORD FROM " + invertedIndexTable + " WHERE DOCUMENT=?);",
+                "DELETE FROM " + idfTable + " WHERE IDF <= 0;",
+                "DELETE FROM " + invertedIndexTable + " WHERE DOCUMENT=?;",
+                "DELETE FROM " + documentsTable + " WHERE DOCUMENT=?;");
+    }
+
+    //count a document added to the inverted index in the IDF table
+    public void addDocumentToIDFTable(String document) throws SQLException {
+        executeUpdates(document,
+                "UPDATE " + idfTable + " SET IDF = IDF + 1 WHERE WORD IN " +
+                        "(SELECT WORD FROM " + invertedIndexTable + " WHERE DOCUMENT=?);",
+                "INSERT INTO " + idfTable + " (WORD, IDF) SELECT WORD, 1 FROM " + invertedIndexTable +
+                        " WHERE DOCUMENT=? AND WORD NOT IN (SELECT WORD FROM " + idfTable + ");");
+    }
+
+    // 6) **************************************** Generation Table ****************************************************
+    //GENERATION : incremented each time the documents of the inverted index change
+    //the data derived from the inverted index (segment, norms, cached results) are stale if their generation is another one
+    public void createGenerationTable() {
+        String sql = "CREATE TABLE " + generationTable + " (GENERATION INTEGER NOT NULL);";
+        createTable(generationTable, sql);
+    }
+
+    //0 if the inverted index has never been filled
+    public long getGeneration() throws SQLException {
+        boolean created = query("SELECT name FROM sqlite_master WHERE type='table' AND name=?", ResultSet::next, generationTable);
+        if (!created) return 0;
+        return query("SELECT GENERATION FROM " + generationTable, rs -> rs.next() ? rs.getLong("GENERATION") : 0);
+    }
+
+    //return the new generation
+    public long incrementGeneration() throws SQLException {
+        createGenerationTable();
+        long generation = getGeneration() + 1;
+        executeUpdates(null,
+                "DELETE FROM " + generationTable + ";",
+                "INSERT INTO " + generationTable + " (GENERATION) VALUES(" + generation + ");");
+        return generation;
+    }
+
+    // 7) **************************************** Database Management methods ***************************************
+    //run a read query with a pooled connection and its cached prepared statement
+    private <T> T query(String sql, ResultSetReader<T> reader, String... parameters) throws SQLException {
+        ConnectionPool.PooledConnection connection = pool.borrow();
+        try {
+            PreparedStatement statement = connection.prepare(sql);
+            for (int i = 0; i < parameters.length; i++) {
+                statement.setString(i + 1, parameters[i]);
+            }
+            try (ResultSet rs = statement.executeQuery()) {
+                return reader.read(rs);
+            }
+        } finally {
+            pool.release(connection);
+        }
+    }
+
+    //execute the statements in one transaction, parameter replaces the ? of each of them
+    private void executeUpdates(String parameter, String... sqls) throws SQLException {
+        openDB();
+        try {
+            db.setAutoCommit(false);
+            for (String sql : sqls) {
+                try (PreparedStatement statement = db.prepareStatement(sql)) {
+                    if (sql.indexOf('?') >= 0) statement.setString(1, parameter);
+                    statement.executeUpdate();
+                }
+            }
+            db.commit();
+        } catch (SQLException e) {
+            db.rollback();
+            throw e;
+        } finally {
+            closeQuietly(db);
+        }
+    }
+
+    //close the connections of the read methods
+    public void close() {
+        pool.close();
+    }
+
+    /* start a bulk load : until endBulkLoad, all the prepared statements share one connection and one transaction
+     *    the statements are prepared once and executePreparedStatement only executes the batch
+     *    the journal is kept in memory and the synchronous writes are disabled : abortBulkLoad rolls the load back,
+     *    but the database must be rebuilt if the process crashes during the load
+     *    the key of the inverted index is dropped during the load and created again after it, or restored by the rollback
+     */
+    public void beginBulkLoad() throws SQLException {
+        openDB();
+        bulkConnection = db;
+        bulkStatements = new HashMap<>();
+        Statement statement = bulkConnection.createStatement();
+        try {
+            statement.execute("PRAGMA journal_mode = MEMORY;"); // not OFF : ROLLBACK is undefined without a journal
+            statement.execute("PRAGMA synchronous = OFF;");
+            statement.execute("PRAGMA cache_size = -65536;"); // 64 MB
+            statement.execute("PRAGMA temp_store = MEMORY;");
+            // the journal mode can't change inside a transaction : the pragmas first, then the transaction begins
+            // before the key is dropped, so abortBulkLoad restores it with the rows
+            bulkConnection.setAutoCommit(false);
+            statement.executeUpdate("DROP INDEX IF EXISTS " + invertedIndexTable + "Key;");
+        } finally {
+            closeQuietly(statement);
+        }
+    }
+
+    //commit the bulk load and create the key of the inverted index
+    public void endBulkLoad() throws SQLException {
+        try {
+            for (PreparedStatement statement : bulkStatements.values()) {
+                statement.executeBatch();
+            }
+            Statement statement = bulkConnection.createStatement();
+            try {
+                if (isCreatedTable(bulkConnection, invertedIndexTable))
+                    statement.executeUpdate(invertedIndexKeySql());
+            } finally {
+                closeQuietly(statement);
+            }
+            bulkConnection.commit();
+        } finally {
+            closeBulkLoad();
+        }
+    }
+
+    //give up a bulk load after an error
+    public void abortBulkLoad() {
+        try {
+            bulkConnection.rollback();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            closeBulkLoad();
+        }
+    }
+
+    private void closeBulkLoad() {
+        for (PreparedStatement statement : bulkStatements.values()) {
+            closeQuietly(statement);
+        }
+        closeQuietly(bulkConnection);
+        bulkStatements = null;
+        bulkConnection = null;
+        prep = null;
+    }
+
+    public void executePreparedStatement() throws SQLException {
+        long startTime = System.nanoTime();
+        prep.executeBatch();
+        if (bulkConnection == null) { // else committed by endBulkLoad
+            db.commit();
+            closeQuietly(db);
+        }
+        if (batchTimer != null) batchTimer.recordSince(startTime);
+    }
+
+    private void prepareInsertStatement(String sql) throws SQLException {
+        if (bulkConnection != null) {
+            prep = bulkStatements.get(sql);
+            if (prep == null) {
+                prep = bulkConnection.prepareStatement(sql);
+                bulkStatements.put(sql, prep);
+            }
+            return;
+        }
+        openDB();
+        if (this.isCreatedTable(invertedIndexTable)) {
+            db.setAutoCommit(false);
+            prep = db.prepareStatement(sql);
+        } else {
+            closeQuietly(db);
+            throw new SQLException();
+        }
+    }
+
+    private void createTable(String tableName, String sql) {
+        this.openDB();
+        Statement statement = null;
+        try {
+            statement = this.db.createStatement();
+            if (! this.isCreatedTable(tableName)) {
+                statement.executeUpdate(sql);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            this.closeQuietly(statement);
+            this.closeQuietly(this.db);
+        }
+    }
+
+    private void deleteTable(String tableName) {
+        this.openDB();
+        Statement statement = null;
+        try {
+            statement = this.db.createStatement();
+            String sql = "DROP TABLE IF EXISTS " + tableName + ";";
+            statement.executeUpdate(sql);
+        } catch (SQLException e) {
+            e.printStackTrace();
+        } finally {
+            this.closeQuietly(statement);
+            this.closeQuietly(this.db);
+        }
+    }
+
+    void openDB() {
+        try {
+            Class.forName("org.sqlite.JDBC");
+            this.db = DriverManager.getConnection("jdbc:sqlite:" + this.dbName + ".db");
+        } catch (ClassNotFoundException | SQLException e) {
+            e.printStackTrace();
+        }
+    }
+
+    boolean isCreatedTable(String tableName) {
+        return isCreatedTable(db, tableName);
+    }
+
+    private boolean isCreatedTable(Connection connection, String tableName) {
+        try {
+            DatabaseMetaData md = connection.getMetaData();
+            ResultSet rs = md.getTables(null, null, tableName, null);
+            return rs.next();
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        return false;
+    }
+
+    private void closeQuietly(Statement statement) {
+        if (statement != null) {
+            try {
+                statement.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void closeQuietly(Connection connection) {
+        if (connection != null) {
+            try {
+                connection.close();
+            } catch (SQLException e) {
+                e.printStackTrace();
+            }
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package fr.insa;
+
+import java.io.File;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+//version of an indexed document : modification date, size and hash of its content
+//used by the incremental indexing to find the documents which changed since they were indexed
+public class DocumentVersion {
+
+    private String document;
+    private long modified;
+    private long size;
+    private String hash;
+
+    public DocumentVersion(String document, long modified, long size, String hash) {
+        this.document = document;
+        this.modified = modified;
+        this.size = size;
+        this.hash = hash;
+    }
+
+    /*Arguments
+     *  document : name of the document
+     *  file : the document file
+     *  content : the bytes of the file
+     */
+    /*Return
+     *  the current version of the document
+     */
+    public static DocumentVersion of(String document, File file, byte[] content) {
+        return new DocumentVersion(document, file.lastModified(), content.length, hash(content));
+    }
+
+    public String getDocument() {
+        return document;
+    }
+
+    public long getModified() {
+        return modified;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    //the file may have changed : its modification date or its size is not the one of this version
+    public boolean mayHaveChanged(File file) {
+        return file.lastModified() != modified || file.length() != size;
+    }
+
+    //SHA-1 of the content, in hexadecimal
+    private static String hash(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-1").digest(content);
+            StringBuilder hex = new StringBuilder(2 * digest.length);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e); // every Java platform has SHA-1
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package fr.insa;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+//binary format of a segment of the inverted index, written by SegmentWriter and read by SegmentReader
+//a segment is a directory with 3 files :
+//  segment.doc : generation of the inverted index, weighting (see Weighting) and number of documents used to compute the tfidf,
+//                then document id -> max frequency of a word on the document, norm ||D||, document name
+//  segment.dic : words sorted by their UTF-8 bytes, by blocks of BLOCK_SIZE words sharing their prefix with the previous one
+//                each word has its number of documents (idf) and the offset of its postings
+//                the offset of each block is stored at the end of the file to binary search them
+//  segment.pst : postings of each word, (document id - previous document id, frequency, tfidf) triples
+//an index made of several segments (see SegmentedIndex) has one sub directory per segment and a manifest :
+//  segments : generation of the inverted index, number of the next segment name,
+//             then the name of each live segment, in the order of their documents, and its deleted documents (bitset)
+//all the files start with MAGIC and VERSION, integers are encoded as variable length integers (7 bits per byte)
+public class IndexFormat {
+
+    public static final int MAGIC = 0x52494E46; // "RINF"
+    public static final int VERSION = 3;
+    public static final int BLOCK_SIZE = 32;
+
+    public static final String DOCUMENTS_FILE = "segment.doc";
+    public static final String DICTIONARY_FILE = "segment.dic";
+    public static final String POSTINGS_FILE = "segment.pst";
+    public static final String MANIFEST_FILE = "segments";
+
+    public static void writeHeader(DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+    }
+
+    public static void checkHeader(ByteBuffer in, String filename) throws IOException {
+        if (in.remaining() < 8 || in.getInt() != MAGIC)
+            throw new IOException(filename + " is not a segment file");
+        int version = in.getInt();
+        if (version != VERSION)
+            throw new IOException(filename + " has version " + version + ", expected " + VERSION);
+    }
+
+    //return the number of written bytes
+    public static int writeVInt(DataOutput out, int value) throws IOException {
+        return writeVLong(out, value & 0xFFFFFFFFL);
+    }
+
+    //return the number of written bytes
+    public static int writeVLong(DataOutput out, long value) throws IOException {
+        int length = 1;
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+            length++;
+        }
+        out.writeByte((int) value);
+        return length;
+    }
+
+    //order of the words on the dictionary : unsigned lexicographic order of their UTF-8 bytes
+    public static int compare(byte[] word, byte[] otherWord) {
+        int max = Math.min(word.length, otherWord.length);
+        for (int i = 0; i < max; i++) {
+            int comparison = (word[i] & 0xFF) - (otherWord[i] & 0xFF);
+            if (comparison != 0) return comparison;
+        }
+        return word.length - otherWord.length;
+    }
+
+    public static int readVInt(ByteBuffer in) {
+        return (int) readVLong(in);
+    }
+
+    public static long readVLong(ByteBuffer in) {
+        byte b = in.get();
+        long value = b & 0x7F;
+        for (int shift = 7; b < 0; shift += 7) {
+            b = in.get();
+            value |= (b & 0x7FL) << shift;
+        }
+        return value;
+    }
+}
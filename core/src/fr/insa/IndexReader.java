@@ -0,0 +1,33 @@
+package fr.insa;
+
+//read access to an inverted index stored on disk : one segment (SegmentReader) or several ones (MultiSegmentReader)
+//the stored tfidf and norms are only read from one segment (see WeightedIndexReader)
+//documents are identified by their id, from 0 to getNumberOfDocuments() - 1
+public interface IndexReader {
+
+    //receive the postings of the index, word after word
+    interface PostingConsumer {
+        void accept(int documentFrequency, int document, double frequency);
+    }
+
+    int getNumberOfDocuments();
+
+    //generation of the inverted index read (see Database.getGeneration)
+    long getGeneration();
+
+    String getDocumentName(int document);
+
+    //max frequency of a word on the document
+    double getMaxFrequency(int document);
+
+    //return the number of documents containing the word
+    int getDocumentFrequency(String word);
+
+    /*Return
+     *  the documents containing the word and the frequency of the word on each of them, null if the word is absent
+     */
+    PostingsList getPostings(String word);
+
+    //give all the postings of the index to the consumer, the postings of a word are given together
+    void forEachPosting(PostingConsumer consumer);
+}
@@ -0,0 +1,108 @@
+package fr.insa;
+
+import java.util.Arrays;
+
+//map from int keys to double values without boxing, iterated in the insertion order of the keys
+//the entries are kept on dense arrays (index -> key, value) and found with an open addressing table (linear probing)
+public class IntDoubleMap {
+
+    private int[] keys; //index -> key
+    private double[] values; //index -> value
+    private int[] table; //slot -> index of the entry + 1, 0 if the slot is empty
+    private int mask;
+    private int size;
+
+    public IntDoubleMap() {
+        this(16);
+    }
+
+    public IntDoubleMap(int expectedSize) {
+        int capacity = Integer.highestOneBit(Math.max(2, expectedSize) * 2 - 1) << 1; // load factor <= 0.5
+        keys = new int[capacity / 2];
+        values = new double[capacity / 2];
+        table = new int[capacity];
+        mask = capacity - 1;
+        size = 0;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    //key of the i-th added entry
+    public int getKey(int i) {
+        return keys[i];
+    }
+
+    //value of the i-th added entry
+    public double getValue(int i) {
+        return values[i];
+    }
+
+    public boolean containsKey(int key) {
+        return table[find(key)] != 0;
+    }
+
+    //value of the key, defaultValue if absent
+    public double get(int key, double defaultValue) {
+        int index = table[find(key)];
+        return index == 0 ? defaultValue : values[index - 1];
+    }
+
+    public void put(int key, double value) {
+        int slot = find(key);
+        if (table[slot] != 0) {
+            values[table[slot] - 1] = value;
+        } else {
+            insert(slot, key, value);
+        }
+    }
+
+    //add delta to the value of the key, the key is added with the value delta if absent
+    public void add(int key, double delta) {
+        int slot = find(key);
+        if (table[slot] != 0) {
+            values[table[slot] - 1] += delta;
+        } else {
+            insert(slot, key, delta);
+        }
+    }
+
+    //remove all the entries, keeping the capacity
+    public void clear() {
+        Arrays.fill(table, 0);
+        size = 0;
+    }
+
+    //slot of the key, or the empty slot where it would be inserted
+    private int find(int key) {
+        int slot = hash(key) & mask;
+        while (table[slot] != 0 && keys[table[slot] - 1] != key) slot = (slot + 1) & mask;
+        return slot;
+    }
+
+    private void insert(int slot, int key, double value) {
+        keys[size] = key;
+        values[size] = value;
+        size++;
+        table[slot] = size;
+        if (size == keys.length) grow();
+    }
+
+    private void grow() {
+        keys = Arrays.copyOf(keys, keys.length * 2);
+        values = Arrays.copyOf(values, values.length * 2);
+        table = new int[table.length * 2];
+        mask = table.length - 1;
+        for (int i = 0; i < size; i++) {
+            int slot = hash(keys[i]) & mask;
+            while (table[slot] != 0) slot = (slot + 1) & mask;
+            table[slot] = i + 1;
+        }
+    }
+
+    private static int hash(int key) {
+        int hash = key * 0x9E3779B9; // Fibonacci hashing : dense ids are spread on the table
+        return hash ^ (hash >>> 16);
+    }
+}
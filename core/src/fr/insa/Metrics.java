@@ -0,0 +1,235 @@
+package fr.insa;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.DoubleSupplier;
+
+/* counters, latency histograms and gauges of the indexing and the search, shared by their threads
+ *    a metric is created the first time it is asked for, then the same one is returned for the same name
+ *    a name may end with Prometheus labels : search_latency{similarity="cosinus"}
+ *    recording is lock free (LongAdder) : the hot paths add their counts once per document or per request
+ *    getSnapshot writes all of them as JSON, or as the Prometheus text format
+ */
+public class Metrics {
+
+    //number of buckets of a timer : the bucket b counts the durations <= 2^b microseconds, the last one the others
+    private static final int NUMBER_OF_BUCKETS = 26;
+
+    public static class Counter {
+        private LongAdder count = new LongAdder();
+
+        public void increment() {
+            count.increment();
+        }
+
+        public void add(long value) {
+            count.add(value);
+        }
+
+        public long get() {
+            return count.sum();
+        }
+    }
+
+    //histogram of durations
+    public static class Timer {
+        private LongAdder[] buckets;
+        private LongAdder count = new LongAdder();
+        private LongAdder sum = new LongAdder(); //ns
+        private LongAccumulator max = new LongAccumulator(Math::max, 0); //ns
+
+        private Timer() {
+            buckets = new LongAdder[NUMBER_OF_BUCKETS];
+            for (int b = 0; b < NUMBER_OF_BUCKETS; b++) {
+                buckets[b] = new LongAdder();
+            }
+        }
+
+        //startTime : System.nanoTime() at the start of the timed operation
+        public void recordSince(long startTime) {
+            record(System.nanoTime() - startTime);
+        }
+
+        public void record(long nanos) {
+            nanos = Math.max(0, nanos);
+            long micros = (nanos + 999) / 1000; // rounded up
+            // smallest b with micros <= 2^b
+            int bucket = micros <= 1 ? 0 : 64 - Long.numberOfLeadingZeros(micros - 1);
+            buckets[Math.min(bucket, NUMBER_OF_BUCKETS - 1)].increment();
+            count.increment();
+            sum.add(nanos);
+            max.accumulate(nanos);
+        }
+
+        public long getCount() {
+            return count.sum();
+        }
+
+        //total duration (ns)
+        public long getSum() {
+            return sum.sum();
+        }
+
+        //longest duration (ns)
+        public long getMax() {
+            return max.get();
+        }
+
+        //upper bound (ns) of the bucket holding the given quantile (0.5, 0.99...) of the durations, at most the
+        //longest duration, 0 if none
+        public long getQuantile(double quantile) {
+            long[] counts = getBucketCounts();
+            long total = 0;
+            for (long c : counts) total += c;
+            if (total == 0) return 0;
+            long rank = (long) Math.ceil(quantile * total);
+            long cumulated = 0;
+            for (int b = 0; b < NUMBER_OF_BUCKETS - 1; b++) {
+                cumulated += counts[b];
+                if (cumulated >= rank) return Math.min(getBucketBound(b), getMax());
+            }
+            return getMax();
+        }
+
+        private long[] getBucketCounts() {
+            long[] counts = new long[NUMBER_OF_BUCKETS];
+            for (int b = 0; b < NUMBER_OF_BUCKETS; b++) {
+                counts[b] = buckets[b].sum();
+            }
+            return counts;
+        }
+    }
+
+    private ConcurrentHashMap<String, Counter> counters;
+    private ConcurrentHashMap<String, Timer> timers;
+    private ConcurrentHashMap<String, DoubleSupplier> gauges;
+
+    public Metrics() {
+        counters = new ConcurrentHashMap<>();
+        timers = new ConcurrentHashMap<>();
+        gauges = new ConcurrentHashMap<>();
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public Timer timer(String name) {
+        return timers.computeIfAbsent(name, n -> new Timer());
+    }
+
+    //a value read when the snapshot is taken (size of a cache, rate...), replaces the previous gauge of the same name
+    public void gauge(String name, DoubleSupplier value) {
+        gauges.put(name, value);
+    }
+
+    //upper bound (ns) of the bucket b of the timers
+    private static long getBucketBound(int b) {
+        return 1000L << b;
+    }
+
+    /*Arguments
+     *  prometheus : the Prometheus text format, else JSON
+     */
+    /*Return
+     *  the current values of all the metrics, sorted by name
+     *  the durations are in seconds on the Prometheus format, in ms on JSON
+     */
+    public String getSnapshot(boolean prometheus) {
+        return prometheus ? toPrometheus() : toJson();
+    }
+
+    //write the snapshot on a file, in the Prometheus text format if its extension is .prom, else in JSON
+    public void write(String filename) throws IOException {
+        Files.write(Paths.get(filename), getSnapshot(filename.endsWith(".prom")).getBytes(StandardCharsets.UTF_8));
+    }
+
+    private String toJson() {
+        StringBuilder json = new StringBuilder("{\n  \"counters\": {");
+        String separator = "\n";
+        for (Map.Entry<String, Counter> counter : new TreeMap<>(counters).entrySet()) {
+            json.append(separator).append("    ").append(quote(counter.getKey())).append(": ").append(counter.getValue().get());
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"gauges\": {");
+        separator = "\n";
+        for (Map.Entry<String, DoubleSupplier> gauge : new TreeMap<>(gauges).entrySet()) {
+            json.append(separator).append("    ").append(quote(gauge.getKey())).append(": ").append(format(gauge.getValue().getAsDouble()));
+            separator = ",\n";
+        }
+        json.append("\n  },\n  \"timers\": {");
+        separator = "\n";
+        for (Map.Entry<String, Timer> entry : new TreeMap<>(timers).entrySet()) {
+            Timer timer = entry.getValue();
+            json.append(separator).append("    ").append(quote(entry.getKey())).append(": {")
+                    .append("\"count\": ").append(timer.getCount())
+                    .append(", \"totalMs\": ").append(format(timer.getSum() / 1e6))
+                    .append(", \"meanMs\": ").append(format(timer.getCount() == 0 ? 0.0 : timer.getSum() / 1e6 / timer.getCount()))
+                    .append(", \"p50Ms\": ").append(format(timer.getQuantile(0.5) / 1e6))
+                    .append(", \"p99Ms\": ").append(format(timer.getQuantile(0.99) / 1e6))
+                    .append(", \"maxMs\": ").append(format(timer.getMax() / 1e6)).append("}");
+            separator = ",\n";
+        }
+        return json.append("\n  }\n}\n").toString();
+    }
+
+    private String toPrometheus() {
+        StringBuilder text = new StringBuilder();
+        String type = null;
+        for (Map.Entry<String, Counter> counter : new TreeMap<>(counters).entrySet()) {
+            type = appendType(text, type, counter.getKey(), "counter");
+            text.append(counter.getKey()).append(' ').append(counter.getValue().get()).append('\n');
+        }
+        for (Map.Entry<String, DoubleSupplier> gauge : new TreeMap<>(gauges).entrySet()) {
+            type = appendType(text, type, gauge.getKey(), "gauge");
+            text.append(gauge.getKey()).append(' ').append(format(gauge.getValue().getAsDouble())).append('\n');
+        }
+        for (Map.Entry<String, Timer> entry : new TreeMap<>(timers).entrySet()) {
+            String name = getBaseName(entry.getKey());
+            String labels = entry.getKey().substring(name.length());
+            labels = labels.isEmpty() ? "" : labels.substring(1, labels.length() - 1) + ",";
+            type = appendType(text, type, name, "histogram");
+            Timer timer = entry.getValue();
+            long[] counts = timer.getBucketCounts();
+            long cumulated = 0;
+            for (int b = 0; b < NUMBER_OF_BUCKETS; b++) {
+                cumulated += counts[b];
+                String bound = b == NUMBER_OF_BUCKETS - 1 ? "+Inf" : format(getBucketBound(b) / 1e9);
+                text.append(name).append("_bucket{").append(labels).append("le=\"").append(bound).append("\"} ").append(cumulated).append('\n');
+            }
+            String suffix = labels.isEmpty() ? "" : "{" + labels.substring(0, labels.length() - 1) + "}";
+            text.append(name).append("_sum").append(suffix).append(' ').append(format(timer.getSum() / 1e9)).append('\n');
+            text.append(name).append("_count").append(suffix).append(' ').append(timer.getCount()).append('\n');
+        }
+        return text.toString();
+    }
+
+    //the TYPE line of a metric, once for all its labels
+    private static String appendType(StringBuilder text, String previousType, String name, String type) {
+        String typeLine = "# TYPE " + getBaseName(name) + " " + type;
+        if (!typeLine.equals(previousType)) text.append(typeLine).append('\n');
+        return typeLine;
+    }
+
+    //name without its labels
+    private static String getBaseName(String name) {
+        int labels = name.indexOf('{');
+        return labels < 0 ? name : name.substring(0, labels);
+    }
+
+    private static String quote(String name) {
+        return "\"" + name.replace("\\", "\\\\").replace("\"", "\\\"") + "\"";
+    }
+
+    private static String format(double value) {
+        if (Double.isNaN(value) || Double.isInfinite(value)) return "0";
+        return Double.toString(value);
+    }
+}
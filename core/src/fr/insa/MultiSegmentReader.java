@@ -0,0 +1,105 @@
+package fr.insa;
+
+import java.util.*;
+
+//read several segments as one index, without their deleted documents
+//the documents of the segments are numbered one segment after the other, the deleted ones are skipped
+//the tfidf stored on the segments are computed with the statistics of their own segment : they are not read
+public class MultiSegmentReader implements IndexReader {
+
+    private List<SegmentReader> segments;
+    private long generation;
+    private int[][] documentIds; //segment, document id on the segment -> document id on the index, -1 if deleted
+    private int[] documentSegments; //document id -> segment
+    private int[] segmentDocuments; //document id -> document id on its segment
+
+    //deleted : deleted documents of each segment
+    //generation : generation of the inverted index made of these segments
+    public MultiSegmentReader(List<SegmentReader> segments, List<BitSet> deleted, long generation) {
+        this.segments = segments;
+        this.generation = generation;
+        documentIds = new int[segments.size()][];
+        int numberOfDocuments = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            numberOfDocuments += segments.get(s).getNumberOfDocuments() - deleted.get(s).cardinality();
+        }
+        documentSegments = new int[numberOfDocuments];
+        segmentDocuments = new int[numberOfDocuments];
+        int document = 0;
+        for (int s = 0; s < segments.size(); s++) {
+            documentIds[s] = new int[segments.get(s).getNumberOfDocuments()];
+            for (int segmentDocument = 0; segmentDocument < documentIds[s].length; segmentDocument++) {
+                if (deleted.get(s).get(segmentDocument)) {
+                    documentIds[s][segmentDocument] = -1;
+                } else {
+                    documentIds[s][segmentDocument] = document;
+                    documentSegments[document] = s;
+                    segmentDocuments[document] = segmentDocument;
+                    document++;
+                }
+            }
+        }
+    }
+
+    @Override
+    public int getNumberOfDocuments() {
+        return documentSegments.length;
+    }
+
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    @Override
+    public String getDocumentName(int document) {
+        return segments.get(documentSegments[document]).getDocumentName(segmentDocuments[document]);
+    }
+
+    @Override
+    public double getMaxFrequency(int document) {
+        return segments.get(documentSegments[document]).getMaxFrequency(segmentDocuments[document]);
+    }
+
+    @Override
+    public int getDocumentFrequency(String word) {
+        PostingsList wordPostings = getPostings(word);
+        return wordPostings == null ? 0 : wordPostings.size();
+    }
+
+    @Override
+    public PostingsList getPostings(String word) {
+        PostingsList wordPostings = null;
+        for (int s = 0; s < segments.size(); s++) {
+            PostingsList segmentPostings = segments.get(s).getPostings(word);
+            if (segmentPostings == null) continue;
+            if (wordPostings == null) wordPostings = new PostingsList(segmentPostings.size());
+            for (int i = 0; i < segmentPostings.size(); i++) {
+                int document = documentIds[s][segmentPostings.getDocument(i)];
+                if (document >= 0) wordPostings.add(document, segmentPostings.getWeight(i));
+            }
+        }
+        return wordPostings == null || wordPostings.size() == 0 ? null : wordPostings;
+    }
+
+    //the number of documents containing a word is counted on all the segments first, then the postings are given
+    //segment after segment : the postings of a word are given together on each segment
+    @Override
+    public void forEachPosting(PostingConsumer consumer) {
+        Map<String, int[]> documentFrequencies = new HashMap<>();
+        for (int s = 0; s < segments.size(); s++) {
+            int[] segmentDocumentIds = documentIds[s];
+            segments.get(s).forEachWordPosting((word, document, frequency) -> {
+                if (segmentDocumentIds[document] >= 0)
+                    documentFrequencies.computeIfAbsent(word, w -> new int[1])[0]++;
+            });
+        }
+        for (int s = 0; s < segments.size(); s++) {
+            int[] segmentDocumentIds = documentIds[s];
+            segments.get(s).forEachWordPosting((word, document, frequency) -> {
+                if (segmentDocumentIds[document] >= 0)
+                    consumer.accept(documentFrequencies.get(word)[0], segmentDocumentIds[document], frequency);
+            });
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package fr.insa;
+
+import java.util.Arrays;
+
+//postings of a word : the documents containing the word and the weight (tf-idf) of the word on each of them
+//documents are identified by their id and are kept in increasing order
+public class PostingsList {
+
+    private int[] documents;
+    private double[] weights;
+    private int size;
+    private double upperBound; //maximum contribution of the word to the similarity of a document, NaN if unknown
+
+    public PostingsList() {
+        this(4);
+    }
+
+    public PostingsList(int capacity) {
+        documents = new int[Math.max(1, capacity)];
+        weights = new double[Math.max(1, capacity)];
+        size = 0;
+        upperBound = Double.NaN;
+    }
+
+    //postings already read in bulk, the arrays are kept : documents in increasing order, not empty
+    public PostingsList(int[] documents, double[] weights) {
+        this.documents = documents;
+        this.weights = weights;
+        size = documents.length;
+        upperBound = Double.NaN;
+    }
+
+    //add a posting, the document id must be greater than the last added one
+    public void add(int document, double weight) {
+        if (size == documents.length) {
+            documents = Arrays.copyOf(documents, size * 2);
+            weights = Arrays.copyOf(weights, size * 2);
+        }
+        documents[size] = document;
+        weights[size] = weight;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public int getDocument(int i) {
+        return documents[i];
+    }
+
+    public double getWeight(int i) {
+        return weights[i];
+    }
+
+    public void setWeight(int i, double weight) {
+        weights[i] = weight;
+    }
+
+    //approximate number of bytes of the list on the heap : the arrays and the object headers
+    public long getMemorySize() {
+        return 64 + 12L * documents.length;
+    }
+
+    /*Arguments
+     *  from : index of the posting to start from
+     *  target : a document id
+     */
+    /*Return
+     *  index of the first posting from "from" whose document id is greater or equal to target (size() if none)
+     */
+    public int advance(int from, int target) {
+        if (from >= size || documents[from] >= target) return from;
+        // galloping search of a window [low, high] such that documents[low] < target <= documents[high]
+        int low = from;
+        int step = 1;
+        int high = from + 1;
+        while (high < size && documents[high] < target) {
+            low = high;
+            step <<= 1;
+            high = low + step;
+        }
+        if (high > size) high = size;
+        int i = Arrays.binarySearch(documents, low + 1, high, target);
+        return i >= 0 ? i : -i - 1;
+    }
+
+    public double getUpperBound() {
+        return upperBound;
+    }
+
+    public void setUpperBound(double upperBound) {
+        this.upperBound = upperBound;
+    }
+}
@@ -0,0 +1,49 @@
+package fr.insa;
+
+import java.util.*;
+
+//analysis of an ad-hoc query as the main words of a request : the fields separated by commas go through the Analyzer
+//of the documents and give their 1-grams and 2-grams, as on the Parser of the indexer
+//the terms are interned on a dictionary of the query only : the words never met by the indexer don't grow the
+//dictionary of the index
+//thread safe : see Analyzer
+public class QueryAnalyzer {
+
+    private Analyzer analyzer;
+    private boolean sumRequestWeights;
+
+    //stopwords of in/
+    public QueryAnalyzer(boolean sumRequestWeights) {
+        this(new Analyzer(Analyzer.loadStopwords(), new StemCache(1 << 16)), sumRequestWeights);
+    }
+
+    //sumRequestWeights : sum the weights of a word found several times on a query, else keep the first one
+    public QueryAnalyzer(Analyzer analyzer, boolean sumRequestWeights) {
+        this.analyzer = analyzer;
+        this.sumRequestWeights = sumRequestWeights;
+    }
+
+     /*Arguments
+    *  query : keywords, "omar sy, intouchables"
+     */
+    /*Return
+    *  Map<WORD or n-gram, WEIGHT of the word on the query : 1 as a main word of a request>
+     */
+    public Map<String, Double> parseQuery(String query) {
+        Map<String, Double> queryWords = new LinkedHashMap<>();
+        TermDictionary dictionary = new TermDictionary();
+        for (String field : query.split(",")) {
+            int[] ngramsList = analyzer.getNGramList(analyzer.clean(field, dictionary), dictionary);
+            for (int ngram : ngramsList) {
+                // the words of a n-gram are separated by a space, as on the dictionary of the index
+                String word = dictionary.getTerm(ngram);
+                if (sumRequestWeights) {
+                    queryWords.merge(word, 1.0, Double::sum);
+                } else {
+                    queryWords.putIfAbsent(word, 1.0);
+                }
+            }
+        }
+        return queryWords;
+    }
+}
@@ -0,0 +1,258 @@
+package fr.insa;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+//read a segment of the inverted index written by SegmentWriter (see IndexFormat)
+//the dictionary and the postings are memory mapped : only the pages of the looked up words are read from the disk
+public class SegmentReader implements WeightedIndexReader {
+
+    //receive the postings of the segment with their word, word after word
+    public interface WordPostingConsumer {
+        void accept(String word, int document, double frequency);
+    }
+
+    private String[] documents; //document id -> document name
+    private double[] maxFrequencies; //document id -> max frequency of a word on the document
+    private double[] norms; //document id -> ||D|| computed with weighting
+    private Weighting weighting; //weighting of the stored tfidf
+    private double numberOfDocumentsOfIdf; //number of documents used on the idf of the stored tfidf
+    private long generation; //generation of the inverted index written on the segment
+    private ByteBuffer dictionary;
+    private ByteBuffer postings;
+    private int numberOfWords;
+    private long[] blocks; //offset of each block of words on the dictionary
+
+    public SegmentReader(String directory) throws IOException {
+        File folder = new File(directory);
+        readDocuments(map(new File(folder, IndexFormat.DOCUMENTS_FILE)));
+        dictionary = map(new File(folder, IndexFormat.DICTIONARY_FILE));
+        IndexFormat.checkHeader(dictionary, IndexFormat.DICTIONARY_FILE);
+        numberOfWords = dictionary.getInt();
+        readBlocks();
+        postings = map(new File(folder, IndexFormat.POSTINGS_FILE));
+        IndexFormat.checkHeader(postings, IndexFormat.POSTINGS_FILE);
+    }
+
+    @Override
+    public int getNumberOfDocuments() {
+        return documents.length;
+    }
+
+    @Override
+    public String getDocumentName(int document) {
+        return documents[document];
+    }
+
+    @Override
+    public double getMaxFrequency(int document) {
+        return maxFrequencies[document];
+    }
+
+    @Override
+    public double getNorm(int document) {
+        return norms[document];
+    }
+
+    @Override
+    public Weighting getWeighting() {
+        return weighting;
+    }
+
+    @Override
+    public double getNumberOfDocumentsOfIdf() {
+        return numberOfDocumentsOfIdf;
+    }
+
+    //generation of the inverted index when the segment was written
+    @Override
+    public long getGeneration() {
+        return generation;
+    }
+
+    public int getNumberOfWords() {
+        return numberOfWords;
+    }
+
+    @Override
+    public int getDocumentFrequency(String word) {
+        ByteBuffer in = dictionary.duplicate();
+        return find(word.getBytes(StandardCharsets.UTF_8), in) ? IndexFormat.readVInt(in) : 0;
+    }
+
+    @Override
+    public PostingsList getPostings(String word) {
+        return getPostings(word, false);
+    }
+
+    @Override
+    public PostingsList getWeightedPostings(String word) {
+        return getPostings(word, true);
+    }
+
+    private PostingsList getPostings(String word, boolean tfidf) {
+        ByteBuffer in = dictionary.duplicate();
+        if (!find(word.getBytes(StandardCharsets.UTF_8), in)) return null;
+        int documentFrequency = IndexFormat.readVInt(in);
+        long offset = IndexFormat.readVLong(in);
+
+        ByteBuffer wordPostings = postings.duplicate();
+        wordPostings.position((int) offset);
+        PostingsList list = new PostingsList(documentFrequency);
+        int document = 0;
+        for (int i = 0; i < documentFrequency; i++) {
+            document += IndexFormat.readVInt(wordPostings);
+            double frequency = wordPostings.getDouble();
+            double weight = wordPostings.getDouble();
+            list.add(document, tfidf ? weight : frequency);
+        }
+        return list;
+    }
+
+    //in the order of the postings file
+    @Override
+    public void forEachPosting(PostingConsumer consumer) {
+        ByteBuffer in = dictionary.duplicate();
+        in.position(12);
+        ByteBuffer wordPostings = postings.duplicate();
+        for (int w = 0; w < numberOfWords; w++) {
+            IndexFormat.readVInt(in); // prefix length
+            int suffix = IndexFormat.readVInt(in);
+            in.position(in.position() + suffix);
+            int documentFrequency = IndexFormat.readVInt(in);
+            wordPostings.position((int) IndexFormat.readVLong(in));
+            int document = 0;
+            for (int i = 0; i < documentFrequency; i++) {
+                document += IndexFormat.readVInt(wordPostings);
+                consumer.accept(documentFrequency, document, wordPostings.getDouble());
+                wordPostings.getDouble(); // tfidf
+            }
+        }
+    }
+
+    //give all the postings of the segment with their word to the consumer, in the order of the postings file
+    public void forEachWordPosting(WordPostingConsumer consumer) {
+        ByteBuffer in = dictionary.duplicate();
+        in.position(12);
+        ByteBuffer wordPostings = postings.duplicate();
+        byte[] word = new byte[64];
+        for (int w = 0; w < numberOfWords; w++) {
+            int prefix = IndexFormat.readVInt(in); // shared with the previous word
+            int suffix = IndexFormat.readVInt(in);
+            if (prefix + suffix > word.length) word = Arrays.copyOf(word, 2 * (prefix + suffix));
+            in.get(word, prefix, suffix);
+            String text = new String(word, 0, prefix + suffix, StandardCharsets.UTF_8);
+            int documentFrequency = IndexFormat.readVInt(in);
+            wordPostings.position((int) IndexFormat.readVLong(in));
+            int document = 0;
+            for (int i = 0; i < documentFrequency; i++) {
+                document += IndexFormat.readVInt(wordPostings);
+                consumer.accept(text, document, wordPostings.getDouble());
+                wordPostings.getDouble(); // tfidf
+            }
+        }
+    }
+
+    /* look up a word on the dictionary
+     *    binary search of the block whose first word is the greatest one lower or equal to the word,
+     *    then linear scan of the block
+     *  return true if found, and in is then positioned after the word
+     */
+    private boolean find(byte[] word, ByteBuffer in) {
+        int low = 0;
+        int high = blocks.length - 1;
+        int block = -1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            in.position((int) blocks[middle]);
+            IndexFormat.readVInt(in); // prefix length, always 0 for the first word of a block
+            int comparison = compare(in, IndexFormat.readVInt(in), word);
+            if (comparison == 0) return true;
+            if (comparison < 0) {
+                block = middle;
+                low = middle + 1;
+            } else {
+                high = middle - 1;
+            }
+        }
+        if (block < 0) return false;
+
+        // length of the prefix shared by the current word of the block and the searched word
+        in.position((int) blocks[block]);
+        int matching = 0;
+        int end = Math.min(numberOfWords - block * IndexFormat.BLOCK_SIZE, IndexFormat.BLOCK_SIZE);
+        for (int w = 0; w < end; w++) {
+            int prefix = IndexFormat.readVInt(in);
+            int suffix = IndexFormat.readVInt(in);
+            if (prefix < matching) return false; // the current word is greater than the searched one
+            if (prefix == matching) {
+                // compare the suffix with the rest of the searched word
+                int i = 0;
+                while (i < suffix && matching + i < word.length && in.get(in.position() + i) == word[matching + i]) i++;
+                if (i == suffix && matching + i == word.length) {
+                    in.position(in.position() + suffix);
+                    return true;
+                }
+                if (i < suffix && (matching + i == word.length
+                        || (in.get(in.position() + i) & 0xFF) > (word[matching + i] & 0xFF))) return false;
+                matching += i;
+            }
+            in.position(in.position() + suffix);
+            IndexFormat.readVInt(in); // document frequency
+            IndexFormat.readVLong(in); // postings offset
+        }
+        return false;
+    }
+
+    //compare the next length bytes of in with word, and position in after them
+    private int compare(ByteBuffer in, int length, byte[] word) {
+        int start = in.position();
+        in.position(start + length);
+        int max = Math.min(length, word.length);
+        for (int i = 0; i < max; i++) {
+            int comparison = (in.get(start + i) & 0xFF) - (word[i] & 0xFF); // unsigned, like the order of the writer
+            if (comparison != 0) return comparison;
+        }
+        return length - word.length;
+    }
+
+    private void readBlocks() {
+        ByteBuffer in = dictionary.duplicate();
+        in.position(in.limit() - 8);
+        in.position((int) in.getLong());
+        blocks = new long[in.getInt()];
+        for (int block = 0; block < blocks.length; block++) {
+            blocks[block] = in.getLong();
+        }
+    }
+
+    private void readDocuments(ByteBuffer in) throws IOException {
+        IndexFormat.checkHeader(in, IndexFormat.DOCUMENTS_FILE);
+        generation = in.getLong();
+        int numberOfDocuments = in.getInt();
+        weighting = Weighting.read(in);
+        numberOfDocumentsOfIdf = in.getDouble();
+        documents = new String[numberOfDocuments];
+        maxFrequencies = new double[numberOfDocuments];
+        norms = new double[numberOfDocuments];
+        for (int document = 0; document < numberOfDocuments; document++) {
+            maxFrequencies[document] = in.getDouble();
+            norms[document] = in.getDouble();
+            byte[] name = new byte[IndexFormat.readVInt(in)];
+            in.get(name);
+            documents[document] = new String(name, StandardCharsets.UTF_8);
+        }
+    }
+
+    //the mapping stays valid after the channel is closed
+    private ByteBuffer map(File file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+    }
+}
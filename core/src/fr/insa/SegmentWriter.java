@@ -0,0 +1,165 @@
+package fr.insa;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+//build a segment of the inverted index in memory and write it on disk (see IndexFormat)
+public class SegmentWriter {
+
+    private String directory;
+    private List<String> documents; //document id -> document name
+    private double[] maxFrequencies; //document id -> max frequency of a word on the document
+    private TermDictionary dictionary;
+    private Weighting weighting;
+    private double[] norms; //document id -> ||D||, computed on write
+    private PostingsList[] postings; //term id -> documents containing the term and its frequency on each of them, null if none
+
+    //dictionary : gives the words of the term ids
+    //weighting : used to compute the tfidf and the norms stored on the segment
+    public SegmentWriter(String directory, TermDictionary dictionary, Weighting weighting) {
+        this.directory = directory;
+        this.dictionary = dictionary;
+        this.weighting = weighting;
+        documents = new ArrayList<>();
+        maxFrequencies = new double[64];
+        postings = new PostingsList[0];
+    }
+
+    /*Arguments
+     *  document name
+     */
+    /*Return
+     *  the id of the document
+     */
+    public int addDocument(String name) {
+        documents.add(name);
+        if (documents.size() > maxFrequencies.length) maxFrequencies = Arrays.copyOf(maxFrequencies, maxFrequencies.length * 2);
+        return documents.size() - 1;
+    }
+
+    //add a term of the last added document
+    public void addPosting(int term, int document, double frequency) {
+        if (term >= postings.length) postings = Arrays.copyOf(postings, Math.max(term + 1, postings.length * 2));
+        PostingsList wordPostings = postings[term];
+        if (wordPostings == null) {
+            wordPostings = new PostingsList();
+            postings[term] = wordPostings;
+        }
+        wordPostings.add(document, frequency);
+        if (frequency > maxFrequencies[document]) maxFrequencies[document] = frequency;
+    }
+
+    public int getNumberOfDocuments() {
+        return documents.size();
+    }
+
+    public String getDirectory() {
+        return directory;
+    }
+
+    //numberOfDocuments : number of documents used on the idf of the stored tfidf, the SegmentedIndex gives the number
+    //of documents written on the segment : each segment is weighted with the statistics of its own documents
+    //generation : generation of the inverted index written on the segment (see Database.getGeneration)
+    public void write(double numberOfDocuments, long generation) throws IOException {
+        File folder = new File(directory);
+        if (!folder.isDirectory() && !folder.mkdirs())
+            throw new IOException("Cannot create the directory " + directory);
+        List<Integer> terms = new ArrayList<>();
+        byte[][] words = new byte[postings.length][]; //term id -> UTF-8 bytes of the term
+        for (int term = 0; term < postings.length; term++) {
+            if (postings[term] == null) continue;
+            words[term] = dictionary.getTerm(term).getBytes(StandardCharsets.UTF_8);
+            terms.add(term);
+        }
+        terms.sort((term, other) -> IndexFormat.compare(words[term], words[other]));
+        long[] offsets = writePostings(new File(folder, IndexFormat.POSTINGS_FILE), terms, numberOfDocuments);
+        writeDocuments(new File(folder, IndexFormat.DOCUMENTS_FILE), numberOfDocuments, generation);
+        writeDictionary(new File(folder, IndexFormat.DICTIONARY_FILE), terms, words, offsets);
+    }
+
+    private void writeDocuments(File file, double numberOfDocuments, long generation) throws IOException {
+        try (DataOutputStream out = open(file)) {
+            IndexFormat.writeHeader(out);
+            out.writeLong(generation);
+            out.writeInt(documents.size());
+            weighting.write(out);
+            out.writeDouble(numberOfDocuments);
+            for (int document = 0; document < documents.size(); document++) {
+                out.writeDouble(maxFrequencies[document]);
+                out.writeDouble(norms[document]);
+                byte[] name = documents.get(document).getBytes(StandardCharsets.UTF_8);
+                IndexFormat.writeVInt(out, name.length);
+                out.write(name);
+            }
+        }
+    }
+
+    //terms : sorted by word
+    //compute the tfidf of each posting and the norms of the documents ||D||=sum(tfidf^2), summed in the order of the terms
+    //return the offset of the postings of each term
+    private long[] writePostings(File file, List<Integer> terms, double numberOfDocuments) throws IOException {
+        long[] offsets = new long[terms.size()];
+        norms = new double[documents.size()];
+        try (DataOutputStream out = open(file)) {
+            IndexFormat.writeHeader(out);
+            long offset = 8;
+            for (int w = 0; w < terms.size(); w++) {
+                offsets[w] = offset;
+                PostingsList wordPostings = postings[terms.get(w)];
+                int previousDocument = 0;
+                for (int i = 0; i < wordPostings.size(); i++) {
+                    int document = wordPostings.getDocument(i);
+                    double tfidf = weighting.calculateTFIDF(wordPostings.getWeight(i), maxFrequencies[document], wordPostings.size(), numberOfDocuments);
+                    norms[document] += Math.pow(tfidf, 2);
+                    offset += IndexFormat.writeVInt(out, document - previousDocument);
+                    out.writeDouble(wordPostings.getWeight(i));
+                    out.writeDouble(tfidf);
+                    offset += 16;
+                    previousDocument = document;
+                }
+            }
+        }
+        for (int document = 0; document < norms.length; document++) {
+            norms[document] = Math.sqrt(norms[document]);
+        }
+        return offsets;
+    }
+
+    private void writeDictionary(File file, List<Integer> terms, byte[][] words, long[] offsets) throws IOException {
+        List<Long> blocks = new ArrayList<>();
+        try (DataOutputStream out = open(file)) {
+            IndexFormat.writeHeader(out);
+            out.writeInt(terms.size());
+            long offset = 12;
+            byte[] previous = new byte[0];
+            for (int w = 0; w < terms.size(); w++) {
+                byte[] word = words[terms.get(w)];
+                int prefix = 0;
+                if (w % IndexFormat.BLOCK_SIZE == 0) {
+                    blocks.add(offset); // the first word of a block is complete
+                } else {
+                    int max = Math.min(previous.length, word.length);
+                    while (prefix < max && previous[prefix] == word[prefix]) prefix++;
+                }
+                offset += IndexFormat.writeVInt(out, prefix);
+                offset += IndexFormat.writeVInt(out, word.length - prefix);
+                out.write(word, prefix, word.length - prefix);
+                offset += word.length - prefix;
+                offset += IndexFormat.writeVInt(out, postings[terms.get(w)].size());
+                offset += IndexFormat.writeVLong(out, offsets[w]);
+                previous = word;
+            }
+            long blocksOffset = offset;
+            out.writeInt(blocks.size());
+            for (long block : blocks) {
+                out.writeLong(block);
+            }
+            out.writeLong(blocksOffset);
+        }
+    }
+
+    private DataOutputStream open(File file) throws IOException {
+        return new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+    }
+}
@@ -0,0 +1,417 @@
+package fr.insa;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/* inverted index made of immutable segments (see SegmentWriter), one sub directory of the index directory per segment
+ *    the added documents are buffered on an in-memory segment, written as a new segment when it is full or on commit
+ *    a document is deleted by marking it on the tombstones of its segment, a written segment is never modified
+ *    when mergeFactor neighbouring segments have the same size tier, a background thread merges them in one segment
+ *    without their deleted documents
+ *    commit writes the list of the live segments, their tombstones and the generation on the manifest (see IndexFormat)
+ * the documents are added by one thread, the merges run on their own thread
+ */
+public class SegmentedIndex {
+
+    //a written segment
+    private static class Segment {
+        private String name;
+        private SegmentReader reader;
+        private Map<String, Integer> documents; //document name -> document id on the segment
+        private BitSet deleted; //tombstones
+        private boolean merging;
+
+        private Segment(String name, SegmentReader reader, BitSet deleted) {
+            this.name = name;
+            this.reader = reader;
+            this.deleted = deleted;
+            documents = new HashMap<>();
+            for (int document = 0; document < reader.getNumberOfDocuments(); document++) {
+                documents.put(reader.getDocumentName(document), document);
+            }
+        }
+
+        private int getNumberOfLiveDocuments() {
+            return reader.getNumberOfDocuments() - deleted.cardinality();
+        }
+    }
+
+    //a segment read with the generation of the index : the one written on a segment is the generation when it was
+    //flushed or merged, which may be older than the one it was committed with
+    private static class CommittedSegmentReader implements WeightedIndexReader {
+        private SegmentReader reader;
+        private long generation;
+
+        private CommittedSegmentReader(SegmentReader reader, long generation) {
+            this.reader = reader;
+            this.generation = generation;
+        }
+
+        @Override
+        public int getNumberOfDocuments() {
+            return reader.getNumberOfDocuments();
+        }
+
+        @Override
+        public long getGeneration() {
+            return generation;
+        }
+
+        @Override
+        public String getDocumentName(int document) {
+            return reader.getDocumentName(document);
+        }
+
+        @Override
+        public double getMaxFrequency(int document) {
+            return reader.getMaxFrequency(document);
+        }
+
+        @Override
+        public int getDocumentFrequency(String word) {
+            return reader.getDocumentFrequency(word);
+        }
+
+        @Override
+        public PostingsList getPostings(String word) {
+            return reader.getPostings(word);
+        }
+
+        @Override
+        public void forEachPosting(PostingConsumer consumer) {
+            reader.forEachPosting(consumer);
+        }
+
+        @Override
+        public Weighting getWeighting() {
+            return reader.getWeighting();
+        }
+
+        @Override
+        public double getNumberOfDocumentsOfIdf() {
+            return reader.getNumberOfDocumentsOfIdf();
+        }
+
+        @Override
+        public double getNorm(int document) {
+            return reader.getNorm(document);
+        }
+
+        @Override
+        public PostingsList getWeightedPostings(String word) {
+            return reader.getWeightedPostings(word);
+        }
+    }
+
+    private File directory;
+    private TermDictionary dictionary;
+    private Weighting weighting;
+    private int flushThreshold; //number of buffered documents written as a new segment
+    private int mergeFactor; //number of segments of the same tier merged together
+    private List<Segment> segments; //in the order of their documents
+    private SegmentWriter buffer; //in-memory segment, null if empty
+    private String bufferName;
+    private Map<String, Integer> bufferDocuments; //document name -> document id on the buffer
+    private BitSet bufferDeleted;
+    private int lastDocument; //id on the buffer of the last added document
+    private int nextSegment; //number of the next segment name
+    private long generation;
+    private ExecutorService merger;
+    private int runningMerges;
+
+    private SegmentedIndex(File directory, TermDictionary dictionary, Weighting weighting, int flushThreshold, int mergeFactor) {
+        this.directory = directory;
+        this.dictionary = dictionary;
+        this.weighting = weighting;
+        this.flushThreshold = Math.max(1, flushThreshold);
+        this.mergeFactor = Math.max(2, mergeFactor);
+        segments = new ArrayList<>();
+        bufferDocuments = new HashMap<>();
+        merger = Executors.newSingleThreadExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "segment-merger");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /*Arguments
+     *  directory : directory of the index, created if needed
+     *  dictionary : ids of the terms of the added documents
+     *  weighting : used to compute the tfidf and the norms stored on the segments
+     *  flushThreshold : number of buffered documents written as a new segment
+     *  mergeFactor : number of segments of the same tier merged together
+     */
+    /*Return
+     *  the index, with the segments of the last commit
+     */
+    public static SegmentedIndex open(String directory, TermDictionary dictionary, Weighting weighting,
+                                      int flushThreshold, int mergeFactor) throws IOException {
+        SegmentedIndex index = new SegmentedIndex(new File(directory), dictionary, weighting, flushThreshold, mergeFactor);
+        index.readManifest();
+        return index;
+    }
+
+    //generation of the inverted index on the last commit, 0 if never committed
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    //number of written segments
+    public synchronized int getNumberOfSegments() {
+        return segments.size();
+    }
+
+    //add a document, its previous version is deleted
+    //the postings of the document are then given by addPosting
+    public synchronized void addDocument(String name) throws IOException {
+        deleteDocument(name);
+        if (buffer != null && bufferDocuments.size() >= flushThreshold) flush();
+        if (buffer == null) {
+            bufferName = "_" + nextSegment++; // reserved now : a merge may start before the buffer is written
+            buffer = new SegmentWriter(new File(directory, bufferName).getPath(), dictionary, weighting);
+            bufferDocuments.clear();
+            bufferDeleted = new BitSet();
+        }
+        lastDocument = buffer.addDocument(name);
+        bufferDocuments.put(name, lastDocument);
+    }
+
+    //add a term of the last added document
+    public synchronized void addPosting(int term, double frequency) {
+        buffer.addPosting(term, lastDocument, frequency);
+    }
+
+    //mark the live version of the document as deleted, nothing if the document is absent
+    public synchronized void deleteDocument(String name) {
+        for (Segment segment : segments) {
+            Integer document = segment.documents.get(name);
+            if (document != null) segment.deleted.set(document);
+        }
+        Integer document = bufferDocuments.remove(name);
+        if (document != null) bufferDeleted.set(document);
+    }
+
+    //delete all the documents : the segments are dropped on the next commit
+    public synchronized void deleteAll() {
+        waitForMerges();
+        segments.clear();
+        buffer = null;
+        bufferDocuments.clear();
+    }
+
+    //write the buffered documents as a new segment, and start the merges it allows
+    public synchronized void flush() throws IOException {
+        if (buffer == null) return;
+        buffer.write(buffer.getNumberOfDocuments(), generation);
+        segments.add(new Segment(bufferName, new SegmentReader(buffer.getDirectory()), bufferDeleted));
+        buffer = null;
+        bufferDocuments.clear();
+        startMerges();
+    }
+
+    //flush and write the manifest with the generation, the segments no longer used are deleted
+    public synchronized void commit(long generation) throws IOException {
+        this.generation = generation;
+        flush();
+        writeManifest();
+        deleteUnusedSegments();
+    }
+
+    /*Return
+     *  the live documents of the written segments, as they are now
+     *  the segment itself if there is only one without deleted document, so that its stored tfidf can be used
+     *  the reader gives the generation of the index, not the one written on its segments
+     */
+    public synchronized IndexReader getReader() {
+        if (segments.size() == 1 && segments.get(0).deleted.isEmpty())
+            return new CommittedSegmentReader(segments.get(0).reader, generation);
+        List<SegmentReader> readers = new ArrayList<>();
+        List<BitSet> deleted = new ArrayList<>();
+        for (Segment segment : segments) {
+            readers.add(segment.reader);
+            deleted.add((BitSet) segment.deleted.clone());
+        }
+        return new MultiSegmentReader(readers, deleted, generation);
+    }
+
+    //wait for the running merges and commit with the current generation
+    public void close() throws IOException {
+        merger.shutdown();
+        synchronized (this) {
+            waitForMerges();
+            commit(generation);
+        }
+    }
+
+    // ************************************************* Merges *******************************************************
+
+    //tier of a segment : log of its number of live documents in base mergeFactor
+    private int getTier(Segment segment) {
+        int tier = 0;
+        for (long size = segment.getNumberOfLiveDocuments(); size >= mergeFactor; size /= mergeFactor) tier++;
+        return tier;
+    }
+
+    //start a merge for each run of mergeFactor neighbouring segments of the same tier
+    //neighbouring segments are merged to keep the order of the documents
+    private void startMerges() {
+        if (merger.isShutdown()) return;
+        int start = 0;
+        while (start + mergeFactor <= segments.size()) {
+            List<Segment> run = segments.subList(start, start + mergeFactor);
+            boolean mergeable = true;
+            int tier = getTier(run.get(0));
+            for (Segment segment : run) {
+                mergeable &= !segment.merging && getTier(segment) == tier;
+            }
+            if (!mergeable) {
+                start++;
+                continue;
+            }
+            List<Segment> toMerge = new ArrayList<>(run);
+            List<BitSet> deleted = new ArrayList<>();
+            for (Segment segment : toMerge) {
+                segment.merging = true;
+                deleted.add((BitSet) segment.deleted.clone());
+            }
+            String name = "_" + nextSegment++;
+            runningMerges++;
+            merger.execute(() -> merge(toMerge, deleted, name));
+            start += mergeFactor;
+        }
+    }
+
+    //write the live documents of the segments as one new segment, which replaces them
+    //the documents deleted during the merge are deleted on the new segment
+    private void merge(List<Segment> toMerge, List<BitSet> deleted, String name) {
+        Segment merged = null;
+        int[][] documentIds = new int[toMerge.size()][]; //segment, document -> document on the new segment
+        try {
+            SegmentWriter writer = new SegmentWriter(new File(directory, name).getPath(), dictionary, weighting);
+            for (int s = 0; s < toMerge.size(); s++) {
+                SegmentReader reader = toMerge.get(s).reader;
+                documentIds[s] = new int[reader.getNumberOfDocuments()];
+                for (int document = 0; document < documentIds[s].length; document++) {
+                    documentIds[s][document] = deleted.get(s).get(document) ? -1 : writer.addDocument(reader.getDocumentName(document));
+                }
+            }
+            for (int s = 0; s < toMerge.size(); s++) {
+                int[] segmentDocumentIds = documentIds[s];
+                toMerge.get(s).reader.forEachWordPosting((word, document, frequency) -> {
+                    if (segmentDocumentIds[document] >= 0)
+                        writer.addPosting(dictionary.intern(word), segmentDocumentIds[document], frequency);
+                });
+            }
+            writer.write(writer.getNumberOfDocuments(), getGeneration());
+            merged = new Segment(name, new SegmentReader(writer.getDirectory()), new BitSet());
+        } catch (IOException | RuntimeException e) {
+            e.printStackTrace();
+        }
+        synchronized (this) {
+            for (Segment segment : toMerge) {
+                segment.merging = false;
+            }
+            int position = segments.indexOf(toMerge.get(0));
+            boolean replaced = merged != null && position >= 0 && position + toMerge.size() <= segments.size()
+                    && segments.subList(position, position + toMerge.size()).equals(toMerge); // not dropped by deleteAll
+            if (replaced) {
+                for (int s = 0; s < toMerge.size(); s++) {
+                    BitSet newlyDeleted = (BitSet) toMerge.get(s).deleted.clone();
+                    newlyDeleted.andNot(deleted.get(s));
+                    for (int document = newlyDeleted.nextSetBit(0); document >= 0; document = newlyDeleted.nextSetBit(document + 1)) {
+                        merged.deleted.set(documentIds[s][document]);
+                    }
+                }
+                segments.subList(position, position + toMerge.size()).clear();
+                segments.add(position, merged);
+            }
+            runningMerges--;
+            notifyAll();
+            startMerges();
+        }
+    }
+
+    //called with the lock
+    private void waitForMerges() {
+        try {
+            while (runningMerges > 0) wait();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    // ************************************************* Manifest *****************************************************
+
+    private void writeManifest() throws IOException {
+        if (!directory.isDirectory() && !directory.mkdirs())
+            throw new IOException("Cannot create the directory " + directory);
+        File temporary = new File(directory, IndexFormat.MANIFEST_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(temporary)))) {
+            IndexFormat.writeHeader(out);
+            out.writeLong(generation);
+            out.writeInt(nextSegment);
+            out.writeInt(segments.size());
+            for (Segment segment : segments) {
+                byte[] name = segment.name.getBytes(StandardCharsets.UTF_8);
+                IndexFormat.writeVInt(out, name.length);
+                out.write(name);
+                long[] tombstones = segment.deleted.toLongArray();
+                IndexFormat.writeVInt(out, tombstones.length);
+                for (long tombstone : tombstones) {
+                    out.writeLong(tombstone);
+                }
+            }
+        }
+        // the previous manifest stays valid until it is replaced
+        Files.move(temporary.toPath(), new File(directory, IndexFormat.MANIFEST_FILE).toPath(),
+                StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void readManifest() throws IOException {
+        File manifest = new File(directory, IndexFormat.MANIFEST_FILE);
+        if (!manifest.isFile()) return; // new index
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(manifest.toPath()));
+        IndexFormat.checkHeader(in, IndexFormat.MANIFEST_FILE);
+        generation = in.getLong();
+        nextSegment = in.getInt();
+        int numberOfSegments = in.getInt();
+        for (int s = 0; s < numberOfSegments; s++) {
+            byte[] name = new byte[IndexFormat.readVInt(in)];
+            in.get(name);
+            long[] tombstones = new long[IndexFormat.readVInt(in)];
+            for (int i = 0; i < tombstones.length; i++) {
+                tombstones[i] = in.getLong();
+            }
+            String segmentName = new String(name, StandardCharsets.UTF_8);
+            SegmentReader reader = new SegmentReader(new File(directory, segmentName).getPath());
+            segments.add(new Segment(segmentName, reader, BitSet.valueOf(tombstones)));
+        }
+    }
+
+    //delete the segment directories which are not on the manifest nor being written
+    //the memory mapped files of a deleted segment stay readable by the readers still using it
+    private void deleteUnusedSegments() {
+        Set<String> used = new HashSet<>();
+        for (Segment segment : segments) {
+            used.add(segment.name);
+        }
+        File[] files = directory.listFiles();
+        if (files == null || runningMerges > 0) return; // a merge may be writing a segment
+        for (File file : files) {
+            if (!file.isDirectory() || !file.getName().startsWith("_") || used.contains(file.getName())) continue;
+            File[] segmentFiles = file.listFiles();
+            if (segmentFiles != null) {
+                for (File segmentFile : segmentFiles) {
+                    segmentFile.delete();
+                }
+            }
+            file.delete();
+        }
+    }
+}
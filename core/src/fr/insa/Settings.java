@@ -0,0 +1,33 @@
+package fr.insa;
+
+//configuration shared by the indexer and the search : they must agree on it, the search reads what the indexer wrote
+public class Settings {
+
+    static String databaseName = "database";
+
+    // Ways of calculating TF (if all false it's only term frequency)
+    static boolean tfNormalized = true;
+
+    // By error, we have been doing the normalization with * instead of /, but with * it gives better results
+    // So, this boolean is to change easily between them in order to facilitate the testing
+    // Warning: Only one of the next ones must be in true
+    static boolean tfMultiply = false;
+    static boolean tfDiv = false;
+    static boolean tfLog = true;
+
+    // If change this, rerun the indexer with fillDBWithRequests = true, in order to "apply" the changes
+    // Sum the weights of a word appearing several times on a request (main word and synonym...), else keep the first one
+    // For the moment summing gives a lower mean P@5 (0.727 against 0.764)
+    // Also used for the queries of the search server
+    static boolean sumRequestWeights = false;
+
+    // Directory of the binary segments of the inverted index, with the tfidf and norms of the TF configuration above
+    static String segmentDirectory = "index";
+
+    private Settings() {
+    }
+
+    static Weighting getWeighting() {
+        return new Weighting(tfNormalized, tfMultiply, tfDiv, tfLog);
+    }
+}
@@ -0,0 +1,57 @@
+package fr.insa;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/* memo of the stems of the words, shared by the stemmers of the parsing threads (see Stemmer)
+ *    the same surface forms are found again and again on the documents : each one is stemmed once
+ *    bounded : once maxSize words are kept, the new words are stemmed without being kept
+ *    the first words kept are the most frequent ones of the corpus
+ */
+public class StemCache {
+
+    private int maxSize;
+    private ConcurrentHashMap<String, String> stems; //word -> stem
+    private LongAdder hits;
+    private LongAdder misses;
+
+    //maxSize : max number of words kept
+    public StemCache(int maxSize) {
+        this.maxSize = maxSize;
+        stems = new ConcurrentHashMap<>();
+        hits = new LongAdder();
+        misses = new LongAdder();
+    }
+
+    //stem of the word, null if not kept
+    public String get(String word) {
+        String stem = stems.get(word);
+        if (stem == null) misses.increment();
+        else hits.increment();
+        return stem;
+    }
+
+    public void put(String word, String stem) {
+        if (stems.size() < maxSize) stems.putIfAbsent(word, stem);
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    //hits / (hits + misses), 0 if the cache was never used
+    public double getHitRate() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? 0.0 : hits / (double) lookups;
+    }
+
+    //number of words kept
+    public int size() {
+        return stems.size();
+    }
+}
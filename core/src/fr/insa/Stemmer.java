@@ -0,0 +1,34 @@
+package fr.insa;
+
+import org.tartarus.snowball.ext.frenchStemmer;
+//stemming class -we have used snowball for stemming
+//not thread safe : one stemmer per thread, which can share a StemCache
+public class Stemmer {
+
+    private frenchStemmer stemmer;
+    private StemCache cache; //if not null, the stems are looked up on this cache before being computed
+
+    public Stemmer() {
+        this(null);
+    }
+
+    public Stemmer(StemCache cache) {
+        this.stemmer = new frenchStemmer();
+        this.cache = cache;
+    }
+
+    public String stem(String s) {
+        if (cache == null) return stemWithSnowball(s);
+        String stem = cache.get(s);
+        if (stem == null) {
+            stem = stemWithSnowball(s);
+            cache.put(s, stem);
+        }
+        return stem;
+    }
+
+    private String stemWithSnowball(String s) {
+        stemmer.setCurrent(s);
+        return stemmer.stem() ? stemmer.getCurrent() : s;
+    }
+}
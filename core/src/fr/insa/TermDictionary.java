@@ -0,0 +1,129 @@
+package fr.insa;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+//give a dense int id to each term (word or n-gram) met by the parser or the evaluator
+//a n-gram is the pair (id of its n-1 first words, id of its last word) : "a b c" = (("a", "b"), "c")
+//thread safe : the parsing workers intern the terms in parallel, ids are never reused
+public class TermDictionary {
+
+    private ConcurrentHashMap<String, Integer> words; //word -> id
+    private ConcurrentHashMap<Long, Integer> ngrams; //(prefix id, last word id) -> id
+    private volatile String[] terms; //id -> term, the words of a n-gram are separated by a space
+    private volatile int[] lengths; //id -> number of words of the term
+    private int size;
+
+    public TermDictionary() {
+        words = new ConcurrentHashMap<>();
+        ngrams = new ConcurrentHashMap<>();
+        terms = new String[1024];
+        lengths = new int[1024];
+        size = 0;
+    }
+
+    /*Arguments
+     *  term : a word or a n-gram whose words are separated by a space
+     */
+    /*Return
+     *  the id of the term, given on its first call
+     */
+    public int intern(String term) {
+        Integer id = words.get(term);
+        if (id != null) return id;
+        if (term.indexOf(' ') >= 0) {
+            String[] termWords = term.split(" ");
+            int ngram = intern(termWords[0]);
+            for (int i = 1; i < termWords.length; i++) {
+                ngram = intern(ngram, intern(termWords[i]));
+            }
+            return ngram;
+        }
+        return internWord(term);
+    }
+
+    private synchronized int internWord(String word) {
+        Integer id = words.get(word);
+        if (id == null) {
+            id = add(word, 1);
+            words.put(word, id);
+        }
+        return id;
+    }
+
+    /*Arguments
+     *  prefix : id of the first words of a n-gram
+     *  word : id of its last word
+     */
+    /*Return
+     *  the id of the n-gram, given on its first call
+     */
+    public int intern(int prefix, int word) {
+        Long key = key(prefix, word);
+        Integer id = ngrams.get(key);
+        if (id != null) return id;
+        synchronized (this) {
+            id = ngrams.get(key);
+            if (id == null) {
+                id = add(terms[prefix] + " " + terms[word], lengths[prefix] + lengths[word]);
+                ngrams.put(key, id);
+            }
+            return id;
+        }
+    }
+
+    /*Arguments
+     *  term : a word or a n-gram whose words are separated by a space
+     */
+    /*Return
+     *  the id of the term, -1 if it has never been interned
+     */
+    public int getId(String term) {
+        Integer id = words.get(term);
+        if (id != null) return id;
+        if (term.indexOf(' ') < 0) return -1;
+        // a n-gram : look up its words one by one
+        String[] termWords = term.split(" ");
+        id = words.get(termWords[0]);
+        for (int i = 1; i < termWords.length && id != null; i++) {
+            Integer word = words.get(termWords[i]);
+            id = word == null ? null : ngrams.get(key(id, word));
+        }
+        return id == null ? -1 : id;
+    }
+
+    public String getTerm(int id) {
+        return terms[id];
+    }
+
+    //number of words of the term : 1 for a word, n for a n-gram
+    public int getLength(int id) {
+        return lengths[id];
+    }
+
+    //number of ids given, ids are in [0, size()[
+    public synchronized int size() {
+        return size;
+    }
+
+    //called with the lock, the arrays are copied when they are full
+    //an id is published (words, ngrams) after its term is written, so the readers of the id see the term
+    private int add(String term, int length) {
+        if (size == terms.length) {
+            String[] newTerms = Arrays.copyOf(terms, size * 2);
+            int[] newLengths = Arrays.copyOf(lengths, size * 2);
+            newTerms[size] = term;
+            newLengths[size] = length;
+            lengths = newLengths;
+            terms = newTerms;
+        } else {
+            terms[size] = term;
+            lengths[size] = length;
+        }
+        return size++;
+    }
+
+    private static Long key(int prefix, int word) {
+        return ((long) prefix << 32) | (word & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,133 @@
+package fr.insa;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+
+//split a text into lower case words, without punctuation, numbers nor stopwords, in a single pass
+//gives the same words as : replace the punctuation (\p{P}) and the spaces (\s+) by one space, split on the spaces,
+//lower case (String.toLowerCase) and keep the words only made of letters (\p{L}) which are not stopwords
+//not thread safe (the current word buffer is reused) : one tokenizer per thread
+public class Tokenizer {
+
+    private char[][] stopwords; //open addressing table of the stopwords, null for an empty slot
+    private int mask;
+    private char[] word; //current word
+    private boolean defaultLowerCase; //String.toLowerCase is the lower case of each character for the default locale
+
+    public Tokenizer(Set<String> stopwords) {
+        int capacity = Integer.highestOneBit(Math.max(4, stopwords.size() * 2) - 1) << 1;
+        this.stopwords = new char[capacity][];
+        this.mask = capacity - 1;
+        for (String stopword : stopwords) {
+            add(stopword.toCharArray());
+        }
+        this.word = new char[64];
+        String language = Locale.getDefault().getLanguage();
+        this.defaultLowerCase = !language.equals("tr") && !language.equals("az") && !language.equals("lt");
+    }
+
+    /*Arguments
+     *  text
+     */
+    /*Return
+     *  the words of the text, in lower case, which are only made of letters and are not stopwords
+     */
+    public List<String> tokenize(String text) {
+        List<String> words = new ArrayList<>();
+        int length = text.length();
+        int i = 0;
+        int start = 0;
+        while (i < length) {
+            int codePoint = text.codePointAt(i);
+            if (isSeparator(codePoint)) {
+                if (i > start) addWord(text, start, i, words);
+                start = i + Character.charCount(codePoint);
+            }
+            i += Character.charCount(codePoint);
+        }
+        if (i > start) addWord(text, start, i, words);
+        return words;
+    }
+
+    //add the word text[start, end) to words if it is only made of letters and not a stopword
+    private void addWord(String text, int start, int end, List<String> words) {
+        int length = end - start;
+        if (length > word.length) word = new char[Math.max(length, word.length * 2)];
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(start + i);
+            if (!defaultLowerCase || Character.isSurrogate(c) || c == 'İ' || c == 'Σ') {
+                // context or locale dependent lower case (final sigma, dotted I...)
+                addWord(text.substring(start, end).toLowerCase(), words);
+                return;
+            }
+            char lowerCase = Character.toLowerCase(c);
+            if (!Character.isLetter(lowerCase)) return; // TODO: Make it accept years?
+            word[i] = lowerCase;
+        }
+        if (!isStopword(word, length)) words.add(new String(word, 0, length));
+    }
+
+    private void addWord(String lowerCaseWord, List<String> words) {
+        for (int i = 0; i < lowerCaseWord.length(); ) {
+            int codePoint = lowerCaseWord.codePointAt(i);
+            if (!Character.isLetter(codePoint)) return;
+            i += Character.charCount(codePoint);
+        }
+        char[] characters = lowerCaseWord.toCharArray();
+        if (!isStopword(characters, characters.length)) words.add(lowerCaseWord);
+    }
+
+    //punctuation (\p{P}) or space (\s)
+    private static boolean isSeparator(int c) {
+        switch (c) {
+            case ' ': case '\t': case '\n': case '\u000B': case '\f': case '\r':
+                return true;
+        }
+        if (c < 128) return (c >= '!' && c <= '/' && c != '$' && c != '+') || (c >= ':' && c <= '@' && c != '<' && c != '=' && c != '>')
+                || (c >= '[' && c <= '_' && c != '^') || c == '{' || c == '}';
+        switch (Character.getType(c)) {
+            case Character.CONNECTOR_PUNCTUATION:
+            case Character.DASH_PUNCTUATION:
+            case Character.START_PUNCTUATION:
+            case Character.END_PUNCTUATION:
+            case Character.INITIAL_QUOTE_PUNCTUATION:
+            case Character.FINAL_QUOTE_PUNCTUATION:
+            case Character.OTHER_PUNCTUATION:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    private boolean isStopword(char[] characters, int length) {
+        for (int slot = hash(characters, length) & mask; stopwords[slot] != null; slot = (slot + 1) & mask) {
+            char[] stopword = stopwords[slot];
+            if (stopword.length == length && equals(stopword, characters, length)) return true;
+        }
+        return false;
+    }
+
+    private void add(char[] stopword) {
+        if (isStopword(stopword, stopword.length)) return;
+        int slot = hash(stopword, stopword.length) & mask;
+        while (stopwords[slot] != null) slot = (slot + 1) & mask;
+        stopwords[slot] = stopword;
+    }
+
+    private static int hash(char[] characters, int length) {
+        int hash = 0;
+        for (int i = 0; i < length; i++) {
+            hash = 31 * hash + characters[i];
+        }
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equals(char[] stopword, char[] characters, int length) {
+        for (int i = 0; i < length; i++) {
+            if (stopword[i] != characters[i]) return false;
+        }
+        return true;
+    }
+}
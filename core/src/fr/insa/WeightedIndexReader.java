@@ -0,0 +1,20 @@
+package fr.insa;
+
+//an index storing, besides the frequencies, the tfidf and the norms computed at indexing time : one segment
+//(SegmentReader), the segments of an index are weighted with the statistics of their own documents
+public interface WeightedIndexReader extends IndexReader {
+
+    //weighting of the stored tfidf and norms
+    Weighting getWeighting();
+
+    //number of documents used on the idf of the stored tfidf
+    double getNumberOfDocumentsOfIdf();
+
+    //||D|| computed with getWeighting()
+    double getNorm(int document);
+
+    /*Return
+     *  the documents containing the word and the tfidf of the word on each of them (see getWeighting), null if the word is absent
+     */
+    PostingsList getWeightedPostings(String word);
+}
@@ -0,0 +1,90 @@
+package fr.insa;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+//way of calculating the tf-idf weight of a word on a document (see Settings for the meaning of the booleans)
+//shared by the Evaluator and the SegmentWriter, which stores the weights computed at indexing time
+public class Weighting {
+
+    private boolean tfNormalized;
+    private boolean tfMultiply;
+    private boolean tfDiv;
+    private boolean tfLog;
+
+    public Weighting(boolean tfNormalized, boolean tfMultiply, boolean tfDiv, boolean tfLog) {
+        this.tfNormalized = tfNormalized;
+        this.tfMultiply = tfMultiply;
+        this.tfDiv = tfDiv;
+        this.tfLog = tfLog;
+    }
+
+    /*Arguments
+     *  frequency : frequency of a word on a document
+     *  maxFrequency : max frequency of a word on the document
+     *  documentFrequency : number of documents containing the word
+     *  numberOfDocuments : number of documents of the corpus
+     */
+    /*Return
+     *  tfidf of the word on the document
+     */
+    public double calculateTFIDF(double frequency, double maxFrequency, int documentFrequency, double numberOfDocuments) {
+        double tf = calculateTF(frequency, getNormalization(maxFrequency));
+        double idf = Math.log(numberOfDocuments / documentFrequency);
+        return tf * idf;
+    }
+
+    //max frequency of a word on the document if tfNormalized, 1 else
+    public double getNormalization(double maxFrequency) {
+        return tfNormalized ? maxFrequency : 1.0;
+    }
+
+    /*Arguments
+     *  frequency : frequency of a word on a document
+     *  normalization : max frequency of a word on the document if tfNormalized, 1 else
+     */
+    /*Return
+     *  tf of the word on the document
+     */
+    public double calculateTF(double frequency, double normalization) {
+        double tf = 0.0;
+        if(tfMultiply){
+              tf = frequency * normalization;
+        }
+        else if(tfDiv) {
+             tf = frequency / normalization;
+        }
+        else if (tfLog) {
+             tf = 1+ (Math.log(frequency) / Math.log(10) * normalization);
+        }
+        return tf;
+    }
+
+    public void write(DataOutput out) throws IOException {
+        out.writeByte((tfNormalized ? 1 : 0) | (tfMultiply ? 2 : 0) | (tfDiv ? 4 : 0) | (tfLog ? 8 : 0));
+    }
+
+    public static Weighting read(ByteBuffer in) {
+        byte flags = in.get();
+        return new Weighting((flags & 1) != 0, (flags & 2) != 0, (flags & 4) != 0, (flags & 8) != 0);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof Weighting)) return false;
+        Weighting weighting = (Weighting) other;
+        return tfNormalized == weighting.tfNormalized && tfMultiply == weighting.tfMultiply
+                && tfDiv == weighting.tfDiv && tfLog == weighting.tfLog;
+    }
+
+    @Override
+    public String toString() {
+        return "tfNormalized=" + tfNormalized + ",tfMultiply=" + tfMultiply + ",tfDiv=" + tfDiv + ",tfLog=" + tfLog;
+    }
+
+    @Override
+    public int hashCode() {
+        return (tfNormalized ? 1 : 0) | (tfMultiply ? 2 : 0) | (tfDiv ? 4 : 0) | (tfLog ? 8 : 0);
+    }
+}
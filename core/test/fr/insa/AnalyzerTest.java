@@ -0,0 +1,43 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+
+import static org.junit.Assert.*;
+
+public class AnalyzerTest {
+
+    private Analyzer analyzer = new Analyzer(new HashSet<>(Arrays.asList("le", "de")), new StemCache(100));
+
+    @Test
+    public void shouldGiveTheStemmedWordsThenTheirBigrams() {
+        TermDictionary dictionary = new TermDictionary();
+        int[] words = analyzer.clean("Le chat DE le voisin dort", dictionary);
+        List<String> ngrams = new ArrayList<>();
+        for (int ngram : analyzer.getNGramList(words, dictionary)) {
+            ngrams.add(dictionary.getTerm(ngram));
+        }
+        Stemmer stemmer = new Stemmer();
+        String chat = stemmer.stem("chat");
+        String voisin = stemmer.stem("voisin");
+        String dort = stemmer.stem("dort");
+        assertEquals(Arrays.asList(chat, voisin, dort, chat + " " + voisin, voisin + " " + dort), ngrams);
+    }
+
+    @Test
+    public void shouldGiveTheTermsOfTheDocumentsToTheQueries() {
+        TermDictionary index = new TermDictionary();
+        int[] ngrams = analyzer.getNGramList(analyzer.clean("Les acteurs du cinéma", index), index);
+        List<String> documentTerms = new ArrayList<>();
+        for (int ngram : ngrams) {
+            documentTerms.add(index.getTerm(ngram));
+        }
+        QueryAnalyzer queries = new QueryAnalyzer(analyzer, false);
+        assertEquals(documentTerms, new ArrayList<>(queries.parseQuery("Les acteurs du cinéma").keySet()));
+        assertEquals(ngrams.length, index.size()); // the query didn't intern its terms on the index
+    }
+}
@@ -50,22 +50,28 @@ public class DatabaseTest {
     @Test
     public void shouldInsertWordDocument() throws SQLException {
         db.createInvertedIndex();
+        db.prepareInvertedIndexStatement();
         db.addToInvertedIndex("hello", "D1", 2);
+        db.executePreparedStatement();
         assertEquals(2, db.getFreq("hello", "D1"));
     }
 
     @Test(expected=SQLException.class)
     public void shouldNotBeAbleToDuplicateWordInSameDocument() throws SQLException {
         db.createInvertedIndex();
+        db.prepareInvertedIndexStatement();
         db.addToInvertedIndex("hello", "D1", 2);
         db.addToInvertedIndex("hello", "D1", 3);
+        db.executePreparedStatement();
     }
 
     @Test
     public void shouldBeAbleToDuplicateWordInDifferentDocument() throws SQLException {
         db.createInvertedIndex();
+        db.prepareInvertedIndexStatement();
         db.addToInvertedIndex("hello", "D1", 3);
         db.addToInvertedIndex("hello", "D2", 2);
+        db.executePreparedStatement();
         assertEquals(3, db.getFreq("hello", "D1"));
         assertEquals(2, db.getFreq("hello", "D2"));
     }
@@ -79,8 +85,34 @@ public class DatabaseTest {
     @Test
     public void shoulGetFreqTotal() throws SQLException {
         db.createInvertedIndex();
+        db.prepareInvertedIndexStatement();
         db.addToInvertedIndex("hello", "D1", 2);
         db.addToInvertedIndex("hello", "D2", 3);
+        db.executePreparedStatement();
         assertEquals(5, db.getAbsoluteFreq("hello"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void shouldRollBackAnAbortedBulkLoad() throws SQLException {
+        db.createInvertedIndex();
+        db.prepareInvertedIndexStatement();
+        db.addToInvertedIndex("hello", "D1", 2);
+        db.executePreparedStatement();
+        db.beginBulkLoad();
+        db.prepareInvertedIndexStatement();
+        db.addToInvertedIndex("hello", "D2", 3);
+        db.executePreparedStatement();
+        db.abortBulkLoad();
+        assertEquals(2, db.getFreq("hello", "D1"));
+        assertEquals(1, db.getInvertedIndex().size());
+        // the key dropped by the bulk load is restored
+        db.prepareInvertedIndexStatement();
+        db.addToInvertedIndex("hello", "D1", 4);
+        try {
+            db.executePreparedStatement();
+            fail("the duplicate (WORD, DOCUMENT) should be refused");
+        } catch (SQLException e) {
+            // expected
+        }
+    }
+}
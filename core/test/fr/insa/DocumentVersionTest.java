@@ -0,0 +1,39 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import static org.junit.Assert.*;
+
+public class DocumentVersionTest {
+
+    @Test
+    public void shouldDetectAChangedFile() throws IOException {
+        File file = File.createTempFile("document", ".html");
+        try {
+            byte[] content = "<p>cinéma</p>".getBytes(StandardCharsets.UTF_8);
+            Files.write(file.toPath(), content);
+            DocumentVersion version = DocumentVersion.of("D1.html", file, content);
+            assertFalse(version.mayHaveChanged(file));
+            assertEquals(40, version.getHash().length());
+
+            byte[] newContent = "<p>théâtre</p>".getBytes(StandardCharsets.UTF_8);
+            Files.write(file.toPath(), newContent);
+            assertTrue(version.mayHaveChanged(file));
+            assertNotEquals(version.getHash(), DocumentVersion.of("D1.html", file, newContent).getHash());
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Test
+    public void shouldGiveTheSameHashToTheSameContent() {
+        byte[] content = "<p>cinéma</p>".getBytes(StandardCharsets.UTF_8);
+        File file = new File("D1.html");
+        assertEquals(DocumentVersion.of("D1.html", file, content).getHash(), DocumentVersion.of("D2.html", file, content.clone()).getHash());
+    }
+}
@@ -0,0 +1,36 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class IntDoubleMapTest {
+
+    @Test
+    public void shouldSumTheValuesOfAKey() {
+        IntDoubleMap map = new IntDoubleMap();
+        map.add(7, 1.0);
+        map.add(3, 2.0);
+        map.add(7, 3.15);
+        assertEquals(2, map.size());
+        assertEquals(4.15, map.get(7, 0.0), 0.0);
+        assertEquals(-1.0, map.get(5, -1.0), 0.0);
+    }
+
+    @Test
+    public void shouldKeepTheInsertionOrderWhenGrowing() {
+        IntDoubleMap map = new IntDoubleMap(2);
+        for (int key = 1000; key > 0; key--) {
+            map.put(key, key / 2.0);
+        }
+        assertEquals(1000, map.size());
+        for (int i = 0; i < map.size(); i++) {
+            assertEquals(1000 - i, map.getKey(i));
+            assertEquals((1000 - i) / 2.0, map.getValue(i), 0.0);
+        }
+        assertTrue(map.containsKey(500));
+        map.clear();
+        assertEquals(0, map.size());
+        assertFalse(map.containsKey(500));
+    }
+}
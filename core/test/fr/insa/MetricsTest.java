@@ -0,0 +1,60 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class MetricsTest {
+
+    @Test
+    public void shouldReturnTheSameMetricForTheSameName() {
+        Metrics metrics = new Metrics();
+        metrics.counter("parser_documents").increment();
+        metrics.counter("parser_documents").add(2);
+        assertEquals(3, metrics.counter("parser_documents").get());
+        assertSame(metrics.timer("db_batch"), metrics.timer("db_batch"));
+    }
+
+    @Test
+    public void shouldCountTheDurationsOnTheirBucket() {
+        Metrics.Timer timer = new Metrics().timer("search_look_up");
+        timer.record(500);        // <= 1 µs
+        timer.record(1_000);      // <= 1 µs
+        timer.record(1_001);      // <= 2 µs
+        timer.record(3_000_000);  // <= 4096 µs
+        assertEquals(4, timer.getCount());
+        assertEquals(3_002_501, timer.getSum());
+        assertEquals(3_000_000, timer.getMax());
+        assertEquals(1_000, timer.getQuantile(0.5));
+        assertEquals(2_000, timer.getQuantile(0.75));
+        assertEquals(3_000_000, timer.getQuantile(0.99)); // the bucket bound is 4096 µs
+        assertEquals(0, new Metrics().timer("empty").getQuantile(0.5));
+    }
+
+    @Test
+    public void shouldWriteThePrometheusFormat() {
+        Metrics metrics = new Metrics();
+        metrics.counter("search_requests").add(11);
+        metrics.gauge("stem_cache_hit_rate", () -> 0.75);
+        metrics.timer("search_latency{similarity=\"cosinus\"}").record(1_500);
+        metrics.timer("search_latency{similarity=\"dice\"}").record(1_500);
+        String text = metrics.getSnapshot(true);
+        assertTrue(text.contains("# TYPE search_requests counter\nsearch_requests 11\n"));
+        assertTrue(text.contains("# TYPE stem_cache_hit_rate gauge\nstem_cache_hit_rate 0.75\n"));
+        assertEquals(text.indexOf("# TYPE search_latency histogram"), text.lastIndexOf("# TYPE search_latency histogram"));
+        assertTrue(text.contains("search_latency_bucket{similarity=\"cosinus\",le=\"1.0E-6\"} 0\n"));
+        assertTrue(text.contains("search_latency_bucket{similarity=\"cosinus\",le=\"2.0E-6\"} 1\n"));
+        assertTrue(text.contains("search_latency_bucket{similarity=\"dice\",le=\"+Inf\"} 1\n"));
+        assertTrue(text.contains("search_latency_count{similarity=\"dice\"} 1\n"));
+    }
+
+    @Test
+    public void shouldWriteJson() {
+        Metrics metrics = new Metrics();
+        metrics.counter("parser_tokens").add(42);
+        metrics.timer("db_batch").record(2_000_000);
+        String json = metrics.getSnapshot(false);
+        assertTrue(json.contains("\"parser_tokens\": 42"));
+        assertTrue(json.contains("\"db_batch\": {\"count\": 1, \"totalMs\": 2.0, \"meanMs\": 2.0, \"p50Ms\": 2.0, \"p99Ms\": 2.0, \"maxMs\": 2.0}"));
+    }
+}
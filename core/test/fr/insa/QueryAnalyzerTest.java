@@ -0,0 +1,35 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class QueryAnalyzerTest {
+
+    private Set<String> stopwords = new HashSet<>(Arrays.asList("le", "de"));
+    private Stemmer stemmer = new Stemmer();
+
+    @Test
+    public void shouldGiveTheStemmedWordsAndTheirBigramsOfEachField() {
+        QueryAnalyzer analyzer = new QueryAnalyzer(new Analyzer(stopwords, new StemCache(100)), false);
+        Map<String, Double> query = analyzer.parseQuery("Le chat DE le voisin, jardins");
+        String chat = stemmer.stem("chat");
+        String voisin = stemmer.stem("voisin");
+        String jardins = stemmer.stem("jardins");
+        assertEquals(Arrays.asList(chat, voisin, chat + " " + voisin, jardins), Arrays.asList(query.keySet().toArray()));
+        assertFalse(query.containsKey("le"));
+        assertFalse(query.containsKey(voisin + " " + jardins));
+        assertEquals(1.0, query.get(chat), 0.0);
+    }
+
+    @Test
+    public void shouldSumTheWeightsOfARepeatedWordOnlyIfAsked() {
+        assertEquals(1.0, new QueryAnalyzer(new Analyzer(stopwords, new StemCache(100)), false).parseQuery("chat, chats").get(stemmer.stem("chat")), 0.0);
+        assertEquals(2.0, new QueryAnalyzer(new Analyzer(stopwords, new StemCache(100)), true).parseQuery("chat, chats").get(stemmer.stem("chat")), 0.0);
+    }
+}
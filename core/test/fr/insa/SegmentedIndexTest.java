@@ -0,0 +1,111 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class SegmentedIndexTest {
+
+    private static final Weighting WEIGHTING = new Weighting(true, false, true, false);
+
+    @Test
+    public void shouldKeepTheLiveDocumentsAcrossFlushesMergesAndReopening() throws IOException {
+        File directory = Files.createTempDirectory("index").toFile();
+        try {
+            TermDictionary dictionary = new TermDictionary();
+            SegmentedIndex index = SegmentedIndex.open(directory.getPath(), dictionary, WEIGHTING, 2, 2);
+            for (int document = 1; document <= 6; document++) {
+                index.addDocument("D" + document + ".html");
+                index.addPosting(dictionary.intern("cinéma"), document);
+                if (document % 2 == 0) index.addPosting(dictionary.intern("théâtre"), 1);
+            }
+            index.deleteDocument("D1.html");
+            index.addDocument("D2.html"); // new version of D2, without théâtre
+            index.addPosting(dictionary.intern("cinéma"), 7);
+            index.commit(3);
+            index.close();
+
+            SegmentedIndex reopened = SegmentedIndex.open(directory.getPath(), new TermDictionary(), WEIGHTING, 2, 2);
+            assertEquals(3, reopened.getGeneration());
+            IndexReader reader = reopened.getReader();
+            assertEquals(5, reader.getNumberOfDocuments());
+            Set<String> names = new HashSet<>();
+            for (int document = 0; document < reader.getNumberOfDocuments(); document++) {
+                names.add(reader.getDocumentName(document));
+            }
+            assertFalse(names.contains("D1.html"));
+            assertTrue(names.contains("D2.html"));
+            assertEquals(5, reader.getDocumentFrequency("cinéma"));
+            assertEquals(2, reader.getDocumentFrequency("théâtre"));
+            PostingsList postings = reader.getPostings("cinéma");
+            for (int i = 0; i < postings.size(); i++) {
+                if (reader.getDocumentName(postings.getDocument(i)).equals("D2.html"))
+                    assertEquals(7, postings.getWeight(i), 0);
+            }
+            assertNull(reader.getPostings("opéra"));
+            reopened.close();
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void shouldDropAllTheSegmentsOnDeleteAll() throws IOException {
+        File directory = Files.createTempDirectory("index").toFile();
+        try {
+            TermDictionary dictionary = new TermDictionary();
+            SegmentedIndex index = SegmentedIndex.open(directory.getPath(), dictionary, WEIGHTING, 1, 10);
+            index.addDocument("D1.html");
+            index.addPosting(dictionary.intern("cinéma"), 1);
+            index.commit(1);
+            index.deleteAll();
+            index.addDocument("D2.html");
+            index.addPosting(dictionary.intern("théâtre"), 1);
+            index.commit(2);
+            assertEquals(1, index.getNumberOfSegments());
+            IndexReader reader = index.getReader();
+            assertEquals(1, reader.getNumberOfDocuments());
+            assertEquals("D2.html", reader.getDocumentName(0));
+            assertNull(reader.getPostings("cinéma"));
+            index.close();
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void shouldReadASegmentFlushedBeforeTheCommitWithTheCommittedGeneration() throws IOException {
+        File directory = Files.createTempDirectory("index").toFile();
+        try {
+            TermDictionary dictionary = new TermDictionary();
+            SegmentedIndex index = SegmentedIndex.open(directory.getPath(), dictionary, WEIGHTING, 10, 10);
+            index.addDocument("D1.html");
+            index.addPosting(dictionary.intern("cinéma"), 1);
+            index.flush(); // written with the generation of the previous commit
+            index.commit(4);
+            assertEquals(1, index.getNumberOfSegments());
+            IndexReader reader = index.getReader();
+            assertTrue(reader instanceof WeightedIndexReader);
+            assertEquals(4, reader.getGeneration());
+            index.close();
+        } finally {
+            delete(directory);
+        }
+    }
+
+    private static void delete(File file) {
+        File[] files = file.listFiles();
+        if (files != null) {
+            for (File child : files) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+}
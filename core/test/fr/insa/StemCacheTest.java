@@ -0,0 +1,36 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class StemCacheTest {
+
+    @Test
+    public void shouldStemLikeTheStemmerWithoutCache() {
+        StemCache cache = new StemCache(100);
+        Stemmer stemmer = new Stemmer(cache);
+        Stemmer other = new Stemmer(cache); // another thread
+        Stemmer withoutCache = new Stemmer();
+        String[] words = {"intouchables", "bonjour", "écrite", "intouchables", "écrite", "écrite"};
+        for (String word : words) {
+            assertEquals(withoutCache.stem(word), stemmer.stem(word));
+            assertEquals(withoutCache.stem(word), other.stem(word));
+        }
+        assertEquals(3, cache.size());
+        assertEquals(3, cache.getMisses());
+        assertEquals(9, cache.getHits());
+        assertEquals(0.75, cache.getHitRate(), 1e-12);
+    }
+
+    @Test
+    public void shouldNotKeepMoreWordsThanItsSize() {
+        StemCache cache = new StemCache(1);
+        Stemmer stemmer = new Stemmer(cache);
+        assertEquals("intouch", stemmer.stem("intouchables"));
+        assertEquals("écrit", stemmer.stem("écrite"));
+        assertEquals(1, cache.size());
+        assertEquals("intouch", cache.get("intouchables"));
+        assertNull(cache.get("écrite"));
+    }
+}
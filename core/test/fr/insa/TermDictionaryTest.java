@@ -0,0 +1,30 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TermDictionaryTest {
+
+    @Test
+    public void shouldGiveTheSameIdToTheSameTerm() {
+        TermDictionary dictionary = new TermDictionary();
+        int chat = dictionary.intern("chat");
+        int noir = dictionary.intern("noir");
+        assertNotEquals(chat, noir);
+        assertEquals(chat, dictionary.intern("chat"));
+        assertEquals("chat", dictionary.getTerm(chat));
+        assertEquals(-1, dictionary.getId("chien"));
+    }
+
+    @Test
+    public void shouldEncodeNGramsAsPairs() {
+        TermDictionary dictionary = new TermDictionary();
+        int bigram = dictionary.intern(dictionary.intern("chat"), dictionary.intern("noir"));
+        assertEquals("chat noir", dictionary.getTerm(bigram));
+        assertEquals(2, dictionary.getLength(bigram));
+        assertEquals(bigram, dictionary.getId("chat noir"));
+        assertEquals(bigram, dictionary.intern("chat noir"));
+        assertEquals(-1, dictionary.getId("noir chat"));
+    }
+}
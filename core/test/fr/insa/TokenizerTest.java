@@ -0,0 +1,30 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+
+import static org.junit.Assert.*;
+
+public class TokenizerTest {
+
+    private Tokenizer tokenizer = new Tokenizer(new HashSet<>(Arrays.asList("le", "de")));
+
+    @Test
+    public void shouldSplitOnPunctuationAndSpaces() {
+        assertEquals(Arrays.asList("aujourd", "hui", "l", "été", "chaud"), tokenizer.tokenize("Aujourd'hui,  l'Été\t(chaud)."));
+    }
+
+    @Test
+    public void shouldRemoveStopwords() {
+        assertEquals(Arrays.asList("chat", "voisin"), tokenizer.tokenize("Le chat DE le voisin"));
+    }
+
+    @Test
+    public void shouldDropWordsWithOtherCharacters() {
+        assertEquals(Collections.singletonList("euros"), tokenizer.tokenize("2017 10$ a+b euros"));
+        assertEquals(Collections.emptyList(), tokenizer.tokenize(" ... "));
+    }
+}
@@ -0,0 +1,31 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+public class WeightingTest {
+
+    @Test
+    public void shouldNormalizeOnlyIfAsked() {
+        Weighting normalized = new Weighting(true, false, true, false);
+        Weighting notNormalized = new Weighting(false, false, true, false);
+        assertEquals(0.5 * Math.log(2.0), normalized.calculateTFIDF(2.0, 4.0, 5, 10.0), 1e-12);
+        assertEquals(2.0 * Math.log(2.0), notNormalized.calculateTFIDF(2.0, 4.0, 5, 10.0), 1e-12);
+    }
+
+    @Test
+    public void shouldReadTheWrittenWeighting() throws IOException {
+        Weighting weighting = new Weighting(true, false, false, true);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        weighting.write(new DataOutputStream(bytes));
+        Weighting read = Weighting.read(ByteBuffer.wrap(bytes.toByteArray()));
+        assertEquals(weighting, read);
+        assertNotEquals(new Weighting(true, true, false, false), read);
+    }
+}
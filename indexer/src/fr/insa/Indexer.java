@@ -0,0 +1,129 @@
+package fr.insa;
+
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.concurrent.TimeUnit;
+
+//construction : parse the documents, the requests and their results on the database, and the documents on the segments
+public class Indexer {
+
+    private static boolean fillDBWithDocuments = true;
+    // When fillDBWithDocuments = false, only parse the documents added or changed since the last run
+    // and remove the deleted ones, on the database and on the segments
+    private static boolean updateDBWithDocuments = false;
+    private static boolean fillDBWithRequests = true;
+    private static boolean fillDBWithRequestsResults = true;
+
+    // If change this, rerun with fillDBWithDocuments = true, in order to "apply" the changes
+    // This gives the ngram a weight in relation to a "normal" word, when making
+    private static double ngramWeight = 1.1; // 0.0 = no bigrams
+
+    // If change this, rerun with fillDBWithDocuments = true, in order to "apply" the changes
+    // Using weights for the tags
+    private static boolean tagsWeights = true;
+
+    // Write the inverted index also on binary segments (Settings.segmentDirectory), for the search to load them
+    // instead of the database
+    private static boolean writeSegment = true;
+    // Number of parsed documents written together on a new segment
+    private static int segmentFlushThreshold = 1000;
+    // Number of segments of the same size merged together in background
+    private static int segmentMergeFactor = 4;
+
+    // Number of threads parsing the documents (when fillDBWithDocuments = true)
+    private static int parsingThreads = Runtime.getRuntime().availableProcessors();
+
+    // File of the metrics of the parsing (documents and tokens per second, stem cache, database batches...),
+    // in the Prometheus text format if it ends with .prom, else in JSON, null = no metrics
+    private static String metricsFile = "indexer-metrics.json";
+
+
+    public static void main(String[] args) {
+        Database db = new Database(Settings.databaseName);
+        TermDictionary dictionary = new TermDictionary();
+        SegmentedIndex index = null;
+        if (writeSegment) {
+            try {
+                index = SegmentedIndex.open(Settings.segmentDirectory, dictionary, Settings.getWeighting(), segmentFlushThreshold, segmentMergeFactor);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        Parser parser = new Parser(db, dictionary, index, ngramWeight, tagsWeights, parsingThreads, Settings.sumRequestWeights);
+        Metrics metrics = metricsFile != null ? new Metrics() : null;
+        parser.setMetrics(metrics);
+        db.setMetrics(metrics);
+
+        long startTime = System.currentTimeMillis();
+        try {
+            if (fillDBWithDocuments) {
+                db.deleteInvertedIndex();
+                db.createInvertedIndex();
+                db.deleteIDFTable();
+                db.createIDFTable();
+                db.deleteDocumentsTable();
+                db.createDocumentsTable();
+                parser.parseHtmlDocuments();
+                printStemCache(parser.getStemCache());
+                printElapsedTime(startTime);
+            } else if (updateDBWithDocuments) {
+                db.createInvertedIndex();
+                db.createIDFTable();
+                db.createDocumentsTable();
+                parser.updateHtmlDocuments();
+                printStemCache(parser.getStemCache());
+                printElapsedTime(startTime);
+            }
+            if (fillDBWithRequests) {
+                db.deleteRequestsTable();
+                db.createRequestsTable();
+                parser.parseRequests();
+                printElapsedTime(startTime);
+            }
+            if (fillDBWithRequestsResults) {
+                db.deleteRequestsResultsTable();
+                db.createRequestsResultsTable();
+                parser.parseRequestsResults();
+                printElapsedTime(startTime);
+            }
+        } catch (SQLException e) {
+            e.printStackTrace();
+        }
+        writeMetrics(metrics);
+        if (index != null) {
+            try {
+                index.close();
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        db.close();
+    }
+
+
+
+    private static void writeMetrics(Metrics metrics) {
+        if (metrics == null) return;
+        try {
+            metrics.write(metricsFile);
+            System.out.println("Metrics written on " + metricsFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    private static void printStemCache(StemCache stemCache) {
+        System.out.println("Stem cache : " + stemCache.getHits() + " hits, " + stemCache.getMisses() + " misses, hit rate "
+                + stemCache.getHitRate() + ", " + stemCache.size() + " words");
+    }
+
+    private static void printElapsedTime(long startTime) {
+        long stopTime = System.currentTimeMillis();
+        long elapsedTime = stopTime - startTime;
+        String hms = String.format("%02d:%02d:%02d", TimeUnit.MILLISECONDS.toHours(elapsedTime),
+                TimeUnit.MILLISECONDS.toMinutes(elapsedTime) % TimeUnit.HOURS.toMinutes(1),
+                TimeUnit.MILLISECONDS.toSeconds(elapsedTime) % TimeUnit.MINUTES.toSeconds(1));
+        System.out.println("Elapsed time : " + elapsedTime + " ms = " + hms);
+        System.out.println("############################################################");
+    }
+}
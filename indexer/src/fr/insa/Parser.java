@@ -0,0 +1,570 @@
+package fr.insa;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.jsoup.nodes.Element;
+import org.jsoup.select.Elements;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+public class Parser {
+
+    private static final int STEM_CACHE_SIZE = 1 << 18; //max number of words whose stem is kept
+
+    //a document parsed by a worker, waiting for the writer
+    private static class ParsedDocument {
+        private int index; //position of the document on the list of files
+        private String filename;
+        private IntDoubleMap ngramFreq; //term id -> frequency, null if the document couldn't be read
+        private DocumentVersion version;
+        private Throwable error; //RuntimeException or Error, not null if the worker failed
+    }
+
+     /*
+      *
+      * 1) Documents Parsing                                    : line 115
+      * 2) Requests Parsing                                    : line 441
+      * 3) Requests Results Parsing                            : line 520
+      * 4) Methods used inside the previous parsing methods     : line 560
+      *
+      */
+
+    private Analyzer analyzer; //tokenizer, stopwords, stemmer and n-grams, shared with the queries of the search
+    private StemCache stemCache; //stems of the words, shared by the stemmers of the analyzer
+    private TermDictionary dictionary;
+    private Database db;
+    private SegmentedIndex index;
+    private String requestsFile;
+    private String requestsResultsFolder;
+    private String documentsFolder;
+    private int dbBatchInterval;
+    private double weightNgram;
+    private boolean tagWeight;
+    private boolean sumRequestWeights;
+    private int[] idfs; //term id -> number of documents containing the term, only updated by the writer thread
+    private int numberOfThreads;
+    private int queueSize;
+    //if not null, the parsing is recorded on these metrics (see setMetrics)
+    private Metrics.Timer parsingTimer;
+    private Metrics.Timer documentTimer;
+    private Metrics.Timer writingTimer;
+    private Metrics.Counter documentsCounter;
+    private Metrics.Counter tokensCounter;
+
+
+    //dictionary : ids of the terms (words and n-grams)
+    //index : if not null, the documents are also written on this segmented inverted index
+    //numberOfThreads : number of threads parsing the documents in parallel
+    //sumRequestWeights : sum the weights of a word found several times on a request, else keep the first one
+    public Parser(Database db, TermDictionary dictionary, SegmentedIndex index, double weightNgram, boolean tagWeight, int numberOfThreads, boolean sumRequestWeights) {
+        stemCache = new StemCache(STEM_CACHE_SIZE);
+        analyzer = new Analyzer(Analyzer.loadStopwords(), stemCache);
+        this.db = db;
+        this.dictionary = dictionary;
+        this.index = index;
+        requestsResultsFolder = "in/qrels";
+        documentsFolder = "in/corpus-utf8";
+        requestsFile = "in/requetes.html";
+        idfs = new int[0];
+        dbBatchInterval = 1000;
+        this.weightNgram = weightNgram;
+        this.tagWeight = tagWeight;
+        this.sumRequestWeights = sumRequestWeights;
+        this.numberOfThreads = Math.max(1, numberOfThreads);
+        queueSize = 4 * this.numberOfThreads;
+    }
+
+    /* record the parsing of the documents on metrics, null to stop recording
+     *    timers : parser_parse_html_documents (all the documents), parser_parse_document (reading, jsoup, cleaning
+     *    and n-grams of one document, by a worker), parser_write_document (writing of one document)
+     *    counters : parser_documents, parser_tokens (stemmed words of the documents, without the stopwords)
+     *    gauges : the documents and tokens per second of the parsing, the hits and misses of the stem cache
+     */
+    public void setMetrics(Metrics metrics) {
+        if (metrics == null) {
+            parsingTimer = documentTimer = writingTimer = null;
+            documentsCounter = tokensCounter = null;
+            return;
+        }
+        Metrics.Timer parsing = metrics.timer("parser_parse_html_documents");
+        Metrics.Counter documents = metrics.counter("parser_documents");
+        Metrics.Counter tokens = metrics.counter("parser_tokens");
+        parsingTimer = parsing;
+        documentTimer = metrics.timer("parser_parse_document");
+        writingTimer = metrics.timer("parser_write_document");
+        documentsCounter = documents;
+        tokensCounter = tokens;
+        metrics.gauge("parser_documents_per_second", () -> documents.get() / (parsing.getSum() / 1e9));
+        metrics.gauge("parser_tokens_per_second", () -> tokens.get() / (parsing.getSum() / 1e9));
+        metrics.gauge("stem_cache_hits", stemCache::getHits);
+        metrics.gauge("stem_cache_misses", stemCache::getMisses);
+        metrics.gauge("stem_cache_hit_rate", stemCache::getHitRate);
+        metrics.gauge("stem_cache_words", stemCache::size);
+    }
+
+    // 1) **************************************** Documents Parsing ************************************************
+    //parse all the documents in the folder "documentsFolder"
+    //and fill IDF table
+    //the documents are parsed (jsoup, cleaning, stemming, n-grams) by numberOfThreads workers
+    //and written on the inverted index by the calling thread, in the order of the files, in one bulk load
+    //at most queueSize documents are parsed ahead of the writer
+     /*Arguments
+    *  none
+     */
+    /*Return
+    *  int : number of documents
+     */
+    public int parseHtmlDocuments() throws SQLException {
+        List<String> filenames = FileExplorer.getListOfFiles(documentsFolder);
+        if (index != null) index.deleteAll();
+        db.beginBulkLoad();
+        boolean loaded = false;
+        try {
+            parseHtmlDocuments(filenames, false);
+            System.out.println("\nFilling IDF table...");
+            int i = 1;
+            db.prepareIDFStatement();
+            for (int term = 0; term < idfs.length; term++) {
+                if (idfs[term] == 0) continue; //a term only met on the requests
+                if (i % dbBatchInterval == 0) {
+                    db.executePreparedStatement();
+                    db.prepareIDFStatement();
+                }
+                db.addToIDFTable(dictionary.getTerm(term), idfs[term]);
+                i++;
+            }
+            db.executePreparedStatement();
+            loaded = true;
+        } finally {
+            if (!loaded) db.abortBulkLoad();
+        }
+        db.endBulkLoad();
+        commitIndex(db.incrementGeneration());
+        return filenames.size();
+    }
+
+    //update the inverted index and the IDF table with the documents of the folder "documentsFolder" which were added,
+    //changed or removed since they were indexed, the other ones are not parsed again
+    //a document has changed if its modification date or size changed and its content hash changed too
+    //the generation of the inverted index is incremented if a document changed, and the segmented index is updated
+    //and committed with it : only if it was at the generation of the database, else it misses earlier changes and
+    //is left at its generation, stale until the documents are parsed again
+    //a changed document which can't be read again is removed from both the database and the segmented index
+     /*Arguments
+    *  none
+     */
+    /*Return
+    *  int : number of documents
+     */
+    public int updateHtmlDocuments() throws SQLException {
+        if (index != null && index.getGeneration() != db.getGeneration()) {
+            System.out.println("The segments are at generation " + index.getGeneration() + " and the database at "
+                    + db.getGeneration() + " : they are not updated, parse all the documents to rebuild them");
+            index = null; // the segments keep their generation : they stay stale
+        }
+        List<String> filenames = FileExplorer.getListOfFiles(documentsFolder);
+        Map<String, DocumentVersion> indexed = db.getDocumentVersions();
+        List<String> changed = new ArrayList<>(); //new or changed documents
+        List<DocumentVersion> touched = new ArrayList<>(); //documents with a new modification date but the same content
+        for (String filename : filenames) {
+            DocumentVersion version = indexed.remove(filename);
+            File file = new File(documentsFolder + "/" + filename);
+            if (version != null && !version.mayHaveChanged(file)) continue;
+            try {
+                DocumentVersion current = DocumentVersion.of(filename, file, readDocument(file));
+                if (version != null && version.getHash().equals(current.getHash())) {
+                    touched.add(current);
+                    continue;
+                }
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+            changed.add(filename);
+        }
+
+        for (String filename : indexed.keySet()) {
+            System.out.println("Removing document " + filename);
+            db.removeDocument(filename);
+            if (index != null) index.deleteDocument(filename);
+        }
+        for (String filename : changed) {
+            db.removeDocument(filename); //previous version, if any
+        }
+        parseHtmlDocuments(changed, true);
+        if (!touched.isEmpty()) {
+            db.prepareDocumentsStatement();
+            for (DocumentVersion version : touched) {
+                db.addToDocuments(version);
+            }
+            db.executePreparedStatement();
+        }
+        if (!changed.isEmpty() || !indexed.isEmpty()) {
+            long generation = db.incrementGeneration();
+            System.out.println(changed.size() + " documents parsed, " + indexed.size() + " removed, generation " + generation);
+            commitIndex(generation);
+        }
+        return filenames.size();
+    }
+
+    //write the new segment of the index and its manifest with the generation of the database
+    private void commitIndex(long generation) {
+        if (index == null) return;
+        System.out.println("Writing segments...");
+        try {
+            index.commit(generation);
+        } catch (IOException e) {
+            e.printStackTrace(); // the index keeps its previous generation : it is stale
+        }
+    }
+
+    //parse the documents with the workers and write them in the order of filenames
+    //update : the documents are added to an existing inverted index, with their idfs
+    private void parseHtmlDocuments(List<String> filenames, boolean update) throws SQLException {
+        long startTime = System.nanoTime();
+        BlockingQueue<ParsedDocument> parsedDocuments = new ArrayBlockingQueue<>(queueSize);
+        Semaphore aheadOfWriter = new Semaphore(queueSize);
+        AtomicInteger nextDocument = new AtomicInteger();
+        ExecutorService workers = Executors.newFixedThreadPool(numberOfThreads);
+        for (int t = 0; t < numberOfThreads; t++) {
+            workers.execute(() -> parseHtmlDocuments(filenames, nextDocument, aheadOfWriter, parsedDocuments));
+        }
+
+        int numberOfDocuments = 0;    //docuemnt number
+        try {
+            // documents parsed before the ones preceding them, waiting for their turn
+            Map<Integer, ParsedDocument> pending = new HashMap<>();
+            while (numberOfDocuments < filenames.size()) {
+                ParsedDocument parsed = pending.remove(numberOfDocuments);
+                if (parsed == null) {
+                    parsed = parsedDocuments.take();
+                    if (parsed.error instanceof RuntimeException) throw (RuntimeException) parsed.error;
+                    if (parsed.error != null) throw (Error) parsed.error;
+                    if (parsed.index != numberOfDocuments) {
+                        pending.put(parsed.index, parsed);
+                        continue;
+                    }
+                }
+                System.out.println("Parsing document " + parsed.filename);
+                if (parsed.ngramFreq != null) writeDocument(parsed, update);
+                else if (index != null) index.deleteDocument(parsed.filename); // removed from the database too
+                numberOfDocuments++;    //document number
+                aheadOfWriter.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted while parsing the documents", e);
+        } finally {
+            workers.shutdownNow();
+        }
+        if (parsingTimer != null) parsingTimer.recordSince(startTime);
+    }
+
+
+    //worker : parse the next documents until there is no more
+    private void parseHtmlDocuments(List<String> filenames, AtomicInteger nextDocument, Semaphore aheadOfWriter,
+                                    BlockingQueue<ParsedDocument> parsedDocuments) {
+        try {
+            while (true) {
+                aheadOfWriter.acquire();
+                int index = nextDocument.getAndIncrement();
+                if (index >= filenames.size()) return;
+                ParsedDocument parsed = new ParsedDocument();
+                parsed.index = index;
+                parsed.filename = filenames.get(index);
+                long startTime = System.nanoTime();
+                try {
+                    File input = new File(documentsFolder + "/" + parsed.filename);
+                    byte[] content = readDocument(input);
+                    parsed.version = DocumentVersion.of(parsed.filename, input, content);
+                    parsed.ngramFreq = parseDocument(Jsoup.parse(new ByteArrayInputStream(content), "UTF-8", input.getAbsolutePath()));
+                } catch (IOException e) {
+                    e.printStackTrace();
+                } catch (RuntimeException | Error e) {
+                    parsed.error = e; // posted anyway (OutOfMemoryError, StackOverflowError of jsoup...) : the writer fails instead of waiting for it
+                }
+                if (documentTimer != null) documentTimer.recordSince(startTime);
+                parsedDocuments.put(parsed);
+                if (parsed.error != null) return;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt(); // the writer stopped
+        }
+    }
+
+    //parse One document
+     /*Arguments
+    *  Document
+     */
+    /*Return
+    *  Map<a term id, the term frequency in the document>
+     */
+    private IntDoubleMap parseDocument(Document doc) {
+        List<Elements> elementsList = new ArrayList<>(); //create a list
+        elementsList.add(doc.head().select("*"));  //add the head document to the list
+        elementsList.add(doc.body().select("*"));  //add the body document to the list
+        //map of words and their frequencies (according to html tags and distance )
+        return cleanDoc(elementsList);
+    }
+
+    //write One parsed document on the inverted index, the documents table and the segmented index, and update the idfs
+    //update : the idfs are updated on the IDF table, else they are counted in memory
+     /*Arguments
+    *  parsed document
+     */
+    /*Return
+    *  none
+     */
+    private void writeDocument(ParsedDocument parsed, boolean update) throws SQLException {
+        long startTime = System.nanoTime();
+        String filename = parsed.filename;
+        IntDoubleMap ngramFreq = parsed.ngramFreq;
+        int i = 1;
+        if (index != null) addToIndex(filename);
+        db.prepareInvertedIndexStatement();
+        //insert the document and terms on the inverted index table
+        for (int n = 0; n < ngramFreq.size(); n++) {
+            if (i % dbBatchInterval == 0) {
+                db.executePreparedStatement();
+                db.prepareInvertedIndexStatement();
+            }
+            int ngram = ngramFreq.getKey(n);
+            double freq = ngramFreq.getValue(n);
+            if (dictionary.getLength(ngram) > 1) freq = freq * weightNgram; // if it's n-gram...
+            db.addToInvertedIndex(dictionary.getTerm(ngram), filename, freq);
+            if (index != null) index.addPosting(ngram, freq);
+            if (!update) updateIdf(ngram);
+            i++;
+        }
+        db.executePreparedStatement();
+        if (update) db.addDocumentToIDFTable(filename);
+        db.prepareDocumentsStatement();
+        db.addToDocuments(parsed.version);
+        db.executePreparedStatement();
+        if (writingTimer != null) writingTimer.recordSince(startTime);
+        if (documentsCounter != null) documentsCounter.increment();
+    }
+
+    //add a document to the segmented index, which is given up if it can't be written
+    private void addToIndex(String filename) {
+        try {
+            index.addDocument(filename);
+        } catch (IOException e) {
+            e.printStackTrace(); // the index keeps its previous generation : it is stale
+            index = null;
+        }
+    }
+
+    //compute a document terms frequency (including  html tags - and distance )
+      /*Arguments
+    *  List<Elements:doc head and body>
+     */
+    /*Return
+    *  Map<a term id, the term frequency in the document>
+     */
+    IntDoubleMap cleanDoc(List<Elements> elementsList) {
+        IntDoubleMap wordFreq = new IntDoubleMap(256);
+        long numberOfTokens = 0;
+        for (Elements elements : elementsList) {
+            for (Element element : elements) {
+                double score = 1;
+
+                if (this.tagWeight) {
+                    if (element.tagName().equals("title")) {
+                        score = 3.15;
+                    } else if (element.tagName().equals("h2") || element.tagName().equals("b")) {  //h2 is most used for important titles than h1
+                        score = 3.15;
+                    } else if (element.tagName().equals("h3")) {
+                        score = 2;
+                    } else if (element.tagName().equals("h4")) {
+                        score = 1.8;
+                    } else if (element.tagName().equals("h1")) {
+                        score = 2.9;
+                    } else if (element.tagName().equals("strong")) {
+                        score = 2.95;
+                    } else if (element.tagName().equals("li")) {
+                        score = 1;
+                    } else if (element.tagName().equals("p")) {
+                        score = 1;
+                    } else if (element.tagName().equals("a")) {
+                        score = 1;
+                    } else if (element.tagName().equals("script") || element.tagName().equals("noscript") || element.tagName().equals("img") || element.tagName().equals("link") || element.tagName().equals("meta") || element.tagName().equals("style") || element.tagName().equals("form")) {
+                        score = 0;
+                    }
+                }
+
+                String text = element.ownText(); //get the element text
+                int[] wordsList = clean(text); //clean the text (remove space etc..)
+                numberOfTokens += wordsList.length;
+                int[] ngramsList = getNGramList(wordsList);
+                for (int ngram : ngramsList) {
+                    wordFreq.add(ngram, score);
+                }
+            }
+        }
+        if (tokensCounter != null) tokensCounter.add(numberOfTokens);
+        return wordFreq;
+    }
+
+
+    public String getDocumentsFolder() {
+        return this.documentsFolder;
+    }
+
+    void setDocumentsFolder(String documentsFolder) {
+        this.documentsFolder = documentsFolder;
+    }
+
+    //content of a document of documentsFolder
+    byte[] readDocument(File file) throws IOException {
+        return Files.readAllBytes(file.toPath());
+    }
+
+    public StemCache getStemCache() {
+        return stemCache;
+    }
+
+    private void updateIdf(int term) {
+        if (term >= idfs.length) idfs = Arrays.copyOf(idfs, Math.max(term + 1, idfs.length * 2));
+        idfs[term]++;
+    }
+
+    // 2) **************************************** Requests Parsing ************************************************
+
+
+    public void parseRequests() throws SQLException {
+        File input = new File(requestsFile);
+        try {
+            Document doc = Jsoup.parse(input, "UTF-8");
+            Elements elements = doc.body().select("*");//get only the request file body
+            System.out.println("Parsing requests file");
+            parseRequests(elements);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+    //elements : request file body
+    //the words of all the requests are gathered, then written in one batch
+    private void parseRequests(Elements elements) throws SQLException {
+        Map<String, Map<String, Double>> requestsWords = new LinkedHashMap<>(); //<Request_ID, <word, weight>>
+        boolean lastWasMotsCles = false;
+        String requestID = "";
+        //for each body line
+        for (Element element : elements) {
+            String nodeName = element.nodeName(); //get the node name
+            String ownText = element.ownText();   //get the text inside the node
+            if (lastWasMotsCles && nodeName.equals("dd")) {  //if the nodename=DD "a key word or a description//
+                String[] w1 = ownText.split(" #,"); //get the main part of the request
+                String[] primaryFields = w1[0].split(","); //split the requests word
+                for (String field : primaryFields) {
+                    int[] wordsList = clean(field);
+                    int[] ngramsList = getNGramList(wordsList);
+                    for (int ngram : ngramsList) {
+                        addRequestWord(requestsWords, requestID, dictionary.getTerm(ngram), 1.0); //main words have a weight of one
+                    }
+                }
+
+                List<String[]> secondaryFields = new ArrayList<>(); //get secondary  parts  of the request (synonyms & relations)
+                for(int i = 1; i < w1.length; i++){
+                    secondaryFields.add(w1[i].split(","));
+                }
+
+                for (String[] tsyn : secondaryFields){
+                    List<int[]> ngramsLists = new ArrayList<>();
+                    int length = 0;
+                    for(String syn: tsyn){
+                        int[] wordsList = clean(syn);
+                        ngramsLists.add(getNGramList(wordsList));
+                        length += ngramsLists.get(ngramsLists.size() - 1).length;
+                    }
+                    for (int[] ngramsList : ngramsLists) {
+                        for (int ngram : ngramsList) {
+                            addRequestWord(requestsWords, requestID, dictionary.getTerm(ngram), (1.0/3*length));
+                        }
+                    }
+                }
+            }
+            if (nodeName.equals("h2")) requestID = element.ownText();
+            lastWasMotsCles = nodeName.equals("dt") && ownText.equals("mots clés");
+        }
+
+        db.prepareRequestsStatement();
+        for (Map.Entry<String, Map<String, Double>> requestWords : requestsWords.entrySet()) {
+            for (Map.Entry<String, Double> wordWeight : requestWords.getValue().entrySet()) {
+                db.addToRequests(requestWords.getKey(), wordWeight.getKey(), wordWeight.getValue());
+            }
+        }
+        db.executePreparedStatement();
+    }
+
+    //add a word to a request, or update its weight if it is already there
+    private void addRequestWord(Map<String, Map<String, Double>> requestsWords, String requestID, String word, double weight) {
+        Map<String, Double> requestWords = requestsWords.computeIfAbsent(requestID, id -> new LinkedHashMap<>());
+        if (sumRequestWeights) {
+            requestWords.merge(word, weight, Double::sum);
+        } else {
+            requestWords.putIfAbsent(word, weight);
+        }
+    }
+
+    // 3) **************************************** Requests Results Parsing ********************************************
+    public void parseRequestsResults() throws SQLException {
+        List<String> filenames = FileExplorer.getListOfFiles(requestsResultsFolder);
+        for (String requestID : filenames) {
+            File file = new File(requestsResultsFolder + "/" + requestID);
+            requestID = cleanRequestFilename(requestID);
+            System.out.println("Parsing request result " + requestID);
+            parseRequestResultFile(file, requestID);
+        }
+        System.out.println();
+    }
+
+    private String cleanRequestFilename(String filename) {
+        Pattern pattern = Pattern.compile("qrel(Q\\d+)");
+        Matcher matcher = pattern.matcher(filename);
+        return matcher.find() ? matcher.group(1) : filename;
+    }
+
+    private void parseRequestResultFile(File file, String requestID) throws SQLException {
+        try {
+            Scanner inFile = new Scanner(file);
+            int i = 1;
+            db.prepareRequestsResultsStatement();
+            while (inFile.hasNext()) {
+                if (i % dbBatchInterval == 0) {
+                    db.executePreparedStatement();
+                    db.prepareRequestsResultsStatement();
+                }
+                String[] lineSplit = inFile.nextLine().split("\\t");
+                String documentID = lineSplit[0];
+                int isPertinent = Integer.parseInt(lineSplit[1]);
+                db.addToRequestsResults(requestID, documentID, isPertinent);
+                i++;
+            }
+            db.executePreparedStatement();
+        } catch (FileNotFoundException e) {
+            e.printStackTrace();
+        }
+    }
+
+    // 4) ********************* methods used inside the previous parsing methods **********************
+    //return the ids of the stemmed words of the text
+    int[] clean(String text) {
+        return analyzer.clean(text, dictionary);
+    }
+
+    //return the ids of the 1-grams, then of the 2-grams... of the words
+    int[] getNGramList(int[] wordsList) {
+        return analyzer.getNGramList(wordsList, dictionary);
+    }
+}
@@ -0,0 +1,124 @@
+package fr.insa;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.sql.SQLException;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+public class ParserTest {
+
+    private static final Weighting WEIGHTING = new Weighting(true, false, false, true);
+
+    private File documents;
+    private File segments;
+    private Database db;
+
+    @Before
+    public void setUp() throws IOException, SQLException {
+        documents = Files.createTempDirectory("corpus").toFile();
+        segments = Files.createTempDirectory("index").toFile();
+        db = new Database("parser-test");
+        db.createInvertedIndex();
+        db.createIDFTable();
+        db.createDocumentsTable();
+        write("D1.html", "le cinéma français");
+        write("D2.html", "le théâtre et l'opéra");
+        TermDictionary dictionary = new TermDictionary();
+        SegmentedIndex index = SegmentedIndex.open(segments.getPath(), dictionary, WEIGHTING, 10, 2);
+        createParser(dictionary, index, null).parseHtmlDocuments();
+        index.close();
+    }
+
+    @After
+    public void tearDown() {
+        db.close();
+        new File("parser-test.db").delete();
+        delete(documents);
+        delete(segments);
+    }
+
+    @Test
+    public void shouldRemoveAChangedDocumentWhichCannotBeReadFromBothStores() throws IOException, SQLException {
+        write("D2.html", "la danse contemporaine, version longue");
+        TermDictionary dictionary = new TermDictionary();
+        SegmentedIndex index = SegmentedIndex.open(segments.getPath(), dictionary, WEIGHTING, 10, 2);
+        createParser(dictionary, index, "D2.html").updateHtmlDocuments();
+        index.close();
+
+        assertFalse(db.getDocumentVersions().containsKey("D2.html"));
+        assertTrue(db.getDocumentVersions().containsKey("D1.html"));
+        SegmentedIndex reopened = SegmentedIndex.open(segments.getPath(), new TermDictionary(), WEIGHTING, 10, 2);
+        assertEquals(db.getGeneration(), reopened.getGeneration());
+        assertEquals(names(db.getDocumentVersions().keySet()), names(reopened.getReader()));
+        reopened.close();
+    }
+
+    @Test
+    public void shouldLeaveStaleSegmentsAtTheirGeneration() throws IOException, SQLException {
+        long generation = db.getGeneration();
+        db.incrementGeneration(); // changes indexed without the segments
+        write("D1.html", "le cinéma italien");
+        TermDictionary dictionary = new TermDictionary();
+        SegmentedIndex index = SegmentedIndex.open(segments.getPath(), dictionary, WEIGHTING, 10, 2);
+        createParser(dictionary, index, null).updateHtmlDocuments();
+        index.close();
+
+        SegmentedIndex reopened = SegmentedIndex.open(segments.getPath(), new TermDictionary(), WEIGHTING, 10, 2);
+        assertEquals(generation, reopened.getGeneration());
+        assertNotEquals(db.getGeneration(), reopened.getGeneration());
+        reopened.close();
+    }
+
+    //dictionary : shared with the index
+    //unreadable : document which can't be read, null if none
+    private Parser createParser(TermDictionary dictionary, SegmentedIndex index, String unreadable) {
+        Parser parser = new Parser(db, dictionary, index, 1.1, true, 2, false) {
+            @Override
+            byte[] readDocument(File file) throws IOException {
+                if (file.getName().equals(unreadable)) throw new IOException("cannot read " + unreadable);
+                return super.readDocument(file);
+            }
+        };
+        parser.setDocumentsFolder(documents.getPath());
+        return parser;
+    }
+
+    private void write(String name, String text) throws IOException {
+        File file = new File(documents, name);
+        Files.write(file.toPath(), ("<html><head><title>" + name + "</title></head><body><p>" + text + "</p></body></html>")
+                .getBytes(StandardCharsets.UTF_8));
+        file.setLastModified(file.lastModified() + 2000); // seen as changed even within the resolution of the dates
+    }
+
+    private static Set<String> names(Set<String> names) {
+        return new HashSet<>(names);
+    }
+
+    private static Set<String> names(IndexReader reader) {
+        Set<String> names = new HashSet<>();
+        for (int document = 0; document < reader.getNumberOfDocuments(); document++) {
+            names.add(reader.getDocumentName(document));
+        }
+        return names;
+    }
+
+    private static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                if (file.isDirectory()) delete(file);
+                else file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
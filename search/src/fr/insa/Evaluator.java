@@ -0,0 +1,1095 @@
+package fr.insa;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.DoubleBuffer;
+import java.nio.IntBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.sql.SQLException;
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+public class Evaluator {
+
+    //default minimum number of postings of a request scored by each shard (see setMinimumShardPostings)
+    private static final int MINIMUM_SHARD_POSTINGS = 1 << 15;
+
+    /* snapshot of an evaluator initialized on the database (see writeSnapshot), big endian :
+     *    MAGIC, VERSION, generation of the inverted index, weighting and number of documents used to compute the tfidf
+     *    number of documents, byte length of each document name, then the UTF-8 names, then the norms ||D||
+     *    number of terms, the index of the first words of each term (-1 for a word), then the index of its last word
+     *    (-1 for a word), number of words, byte length of each word, then the UTF-8 words
+     *    then the idf and the number of postings of each term
+     *    then the document ids of all the postings, term after term, then their tfidf
+     *    CRC32 of all the previous bytes
+     *    the arrays are written one after the other to be read in bulk
+     */
+    private static final int SNAPSHOT_MAGIC = 0x52534E50; // "RSNP"
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOT_HEADER_SIZE = 4 + 4 + 8 + 1 + 8;
+
+    //words of a request looked up once on the index, in the iteration order of the request map
+    private static class Request {
+        private double[] weights; //WEIGHT of the word on the request (main word,synonym..etc)
+        private int[] idfs; //number of documents containing the word, 0 if absent or if idfRequest is false
+        private PostingsList[] postings; //null if the word is absent
+        private double norm; //||Q||
+    }
+
+    private Database db;
+    private IndexReader segment; //if not null, the postings are read from this segment when a request needs them
+    private WeightedIndexReader weightedSegment; //the segment if it stores the tfidf and norms of the same weighting, else null
+    private TermDictionary dictionary;
+    private PostingsList[] postings; //term id -> documents containing the term and its tfidf on each of them, null if none
+    private List<String> documents; //document id -> document name
+    private int[] idfs;  //term id -> number of documents containing the term, 0 if none
+    private double[] norms; //document id -> ||D||=sum(tfidf^2)
+    private Map<String, List<String>> requestsResults; //Request_ID -> pertinent documents, read once
+
+    private double numberOfDocuments;
+    private Weighting weighting;
+    private boolean cosinus;
+    private boolean jaccard;
+    private boolean dice;
+    private boolean idfRequest;
+    private boolean synonymsWeights;
+    private int numberOfThreads;
+    private int minimumShardPostings;
+    private ResultCache resultCache; //if not null, the rankings are looked up on this cache before being computed
+    private PostingsCache postingsCache; //if not null, the postings read from the segment are kept on this cache
+    private String configuration; //similarity and weighting, part of the key of the cached rankings
+    private long generation; //generation of the loaded inverted index
+    private Consumer<QueryTrace> traceListener; //if not null, receives the trace of each request searched
+    //if not null, the searches are recorded on these metrics (see setMetrics)
+    private Metrics.Timer latencyTimer;
+    private Metrics.Timer lookUpTimer;
+    private Metrics.Timer generateResultsTimer;
+    private Metrics.Timer similarityTimer;
+    private Metrics.Counter requestsCounter;
+    private Metrics.Counter postingsCounter;
+    private Metrics.Counter candidatesCounter;
+    private Metrics.Counter heapCounter;
+
+    //numberOfThreads : number of threads searching the requests of a batch in parallel
+    public Evaluator(Database db, TermDictionary dictionary, double numberOfDocuments, boolean tfNormalized, boolean cosinus, boolean jaccard, boolean dice, boolean idfRequest, boolean tfMultiply, boolean tfDiv, boolean tfLog, boolean synonymsWeights, int numberOfThreads) {
+        this.db = db;
+        this.dictionary = dictionary;
+        this.weighting = new Weighting(tfNormalized, tfMultiply, tfDiv, tfLog);
+        this.numberOfDocuments = numberOfDocuments;
+        this.cosinus = cosinus;
+        this.jaccard = jaccard;
+        this.dice = dice;
+        this.idfRequest = idfRequest;
+        this.synonymsWeights = synonymsWeights;
+        this.numberOfThreads = Math.max(1, numberOfThreads);
+        requestsResults = new HashMap<>();
+        minimumShardPostings = MINIMUM_SHARD_POSTINGS;
+        configuration = weighting + ",cosinus=" + cosinus + ",jaccard=" + jaccard + ",dice=" + dice
+                + ",idfRequest=" + idfRequest + ",synonymsWeights=" + synonymsWeights + ",N=" + numberOfDocuments;
+    }
+
+    //the cache may be shared by evaluators of different configurations on the same index source (database, segments
+    //or snapshot) but not across index sources : the key only holds the configuration and the generation
+    public void setResultCache(ResultCache resultCache) {
+        this.resultCache = resultCache;
+    }
+
+    //the cache must not be shared : it keeps the postings weighted by this evaluator
+    public void setPostingsCache(PostingsCache postingsCache) {
+        this.postingsCache = postingsCache;
+    }
+
+    /* record the searches on metrics, null to stop recording
+     *    timers : search_latency{similarity="..."} (whole search of a request), search_look_up (postings of the
+     *    request words), search_generate_results and search_calculate_similarity (summed over the shards of a
+     *    request, with the MaxScore pruning the scoring is counted on search_calculate_similarity)
+     *    counters : search_requests, search_postings_scanned, search_candidates_scored, search_heap_operations
+     */
+    public void setMetrics(Metrics metrics) {
+        if (metrics == null) {
+            latencyTimer = lookUpTimer = generateResultsTimer = similarityTimer = null;
+            requestsCounter = postingsCounter = candidatesCounter = heapCounter = null;
+            return;
+        }
+        String similarity = cosinus ? "cosinus" : jaccard ? "jaccard" : dice ? "dice" : "scalar";
+        latencyTimer = metrics.timer("search_latency{similarity=\"" + similarity + "\"}");
+        lookUpTimer = metrics.timer("search_look_up");
+        generateResultsTimer = metrics.timer("search_generate_results");
+        similarityTimer = metrics.timer("search_calculate_similarity");
+        requestsCounter = metrics.counter("search_requests");
+        postingsCounter = metrics.counter("search_postings_scanned");
+        candidatesCounter = metrics.counter("search_candidates_scored");
+        heapCounter = metrics.counter("search_heap_operations");
+    }
+
+    //the listener may be called by several threads at the same time (see searchAll)
+    public void setTraceListener(Consumer<QueryTrace> traceListener) {
+        this.traceListener = traceListener;
+    }
+
+    public ResultCache getResultCache() {
+        return resultCache;
+    }
+
+    public PostingsCache getPostingsCache() {
+        return postingsCache;
+    }
+
+    //generation of the loaded inverted index (see Database.getGeneration)
+    public long getGeneration() {
+        return generation;
+    }
+
+    //true if initialized on a segment, false if on the database
+    public boolean isLoadedFromSegments() {
+        return segment != null;
+    }
+
+    //a request with more postings than numberOfThreads times minimumShardPostings is scored by numberOfThreads shards
+    public void setMinimumShardPostings(int minimumShardPostings) {
+        this.minimumShardPostings = Math.max(1, minimumShardPostings);
+    }
+
+    public void initialize() throws SQLException{
+        // read first : an indexing committed while loading makes the index stale, never the generation ahead of it
+        generation = db.getGeneration();
+        Map<String, Map<String, Double>> invertedIndex = db.getInvertedIndex(); //<Document,Map<Word,theWordFrequency>>
+        idfs = new int[dictionary.size()];
+        for (Map.Entry<String, Integer> wordIdf : db.getIdfs().entrySet()) {
+            int term = dictionary.intern(wordIdf.getKey());
+            if (term >= idfs.length) idfs = Arrays.copyOf(idfs, Math.max(term + 1, idfs.length * 2));
+            idfs[term] = wordIdf.getValue();
+        }
+        documents = new ArrayList<>(invertedIndex.keySet());
+        buildPostingsWithTFIDFAndCalculateNorms(invertedIndex);
+        calculateUpperBounds();
+    }
+
+    //initialization from a segment of the inverted index instead of the database
+    //nothing but the documents names and norms is loaded : the postings of a word are read when a request contains it
+    //the tfidf and the norms stored on the segment are used if they were computed with the same weighting and number
+    //of documents, else they are computed again from the frequencies
+    public void initialize(IndexReader segment) {
+        this.segment = segment;
+        generation = segment.getGeneration();
+        if (postingsCache != null) postingsCache.clear();
+        documents = new ArrayList<>(segment.getNumberOfDocuments());
+        for (int document = 0; document < segment.getNumberOfDocuments(); document++) {
+            documents.add(segment.getDocumentName(document));
+        }
+        postings = null;
+        idfs = null;
+        weightedSegment = null;
+        if (segment instanceof WeightedIndexReader) {
+            WeightedIndexReader weighted = (WeightedIndexReader) segment;
+            if (weighting.equals(weighted.getWeighting())
+                    && Double.compare(numberOfDocuments, weighted.getNumberOfDocumentsOfIdf()) == 0) weightedSegment = weighted;
+        }
+        if (weightedSegment != null) {
+            norms = new double[documents.size()];
+            for (int document = 0; document < norms.length; document++) {
+                norms[document] = weightedSegment.getNorm(document);
+            }
+        } else {
+            calculateNorms(segment);
+        }
+    }
+
+    /* write the index loaded from the database on a snapshot file, read back by initializeFromSnapshot
+     *    the tfidf of the postings, the idfs, the norms and the documents names : nothing is computed again on loading
+     *    the file is written next to the previous one, which stays valid until it is replaced
+     */
+    public void writeSnapshot(String filename) throws IOException {
+        if (postings == null) throw new IllegalStateException("Only an evaluator initialized on the database can be written");
+        File file = new File(filename);
+        // the terms with an idf or postings, and the first words and last word of their n-grams, in increasing ids :
+        // the parts of a n-gram are interned before it
+        int numberOfIds = Math.min(idfs.length, dictionary.size());
+        boolean[] written = new boolean[numberOfIds];
+        int[] prefixes = new int[numberOfIds]; //term id -> id of the first words of the n-gram, -1 for a word
+        int[] lastWords = new int[numberOfIds]; //term id -> id of the last word of the n-gram, -1 for a word
+        for (int term = numberOfIds - 1; term >= 0; term--) {
+            if (!written[term] && idfs[term] == 0 && postings[term] == null) continue;
+            written[term] = true;
+            prefixes[term] = lastWords[term] = -1;
+            if (dictionary.getLength(term) > 1) {
+                String ngram = dictionary.getTerm(term);
+                int space = ngram.lastIndexOf(' ');
+                prefixes[term] = dictionary.getId(ngram.substring(0, space));
+                lastWords[term] = dictionary.getId(ngram.substring(space + 1));
+                written[prefixes[term]] = written[lastWords[term]] = true;
+            }
+        }
+        List<Integer> terms = new ArrayList<>();
+        int[] indexes = new int[numberOfIds]; //term id -> index of the term on the snapshot
+        List<String> words = new ArrayList<>();
+        for (int term = 0; term < numberOfIds; term++) {
+            if (!written[term]) continue;
+            indexes[term] = terms.size();
+            terms.add(term);
+            if (prefixes[term] < 0) words.add(dictionary.getTerm(term));
+        }
+        // a temporary file of its own : two writers of the same snapshot don't write on the same file
+        File temporary = Files.createTempFile(file.getAbsoluteFile().getParentFile().toPath(), file.getName(), ".tmp").toFile();
+        try {
+            CRC32 checksum = new CRC32();
+            try (DataOutputStream out = new DataOutputStream(new CheckedOutputStream(
+                    new BufferedOutputStream(new FileOutputStream(temporary), 1 << 16), checksum))) {
+                out.writeInt(SNAPSHOT_MAGIC);
+                out.writeInt(SNAPSHOT_VERSION);
+                out.writeLong(generation);
+                weighting.write(out);
+                out.writeDouble(numberOfDocuments);
+                out.writeInt(documents.size());
+                writeStrings(out, documents);
+                for (double norm : norms) {
+                    out.writeDouble(norm);
+                }
+                out.writeInt(terms.size());
+                for (int term : terms) {
+                    out.writeInt(prefixes[term] < 0 ? -1 : indexes[prefixes[term]]);
+                }
+                for (int term : terms) {
+                    out.writeInt(lastWords[term] < 0 ? -1 : indexes[lastWords[term]]);
+                }
+                out.writeInt(words.size());
+                writeStrings(out, words);
+                for (int term : terms) {
+                    out.writeInt(idfs[term]);
+                }
+                for (int term : terms) {
+                    out.writeInt(postings[term] != null ? postings[term].size() : 0);
+                }
+                for (int term : terms) {
+                    PostingsList wordPostings = postings[term];
+                    for (int i = 0; wordPostings != null && i < wordPostings.size(); i++) {
+                        out.writeInt(wordPostings.getDocument(i));
+                    }
+                }
+                for (int term : terms) {
+                    PostingsList wordPostings = postings[term];
+                    for (int i = 0; wordPostings != null && i < wordPostings.size(); i++) {
+                        out.writeDouble(wordPostings.getWeight(i));
+                    }
+                }
+                // the checksum of the previous bytes, not of itself
+                out.writeLong(checksum.getValue());
+            }
+            Files.move(temporary.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            temporary.delete(); // if the file couldn't be written or moved
+        }
+    }
+
+    /* initialization from a snapshot written by writeSnapshot instead of the database
+     *    the header is checked first, then the file is read at once and its arrays copied in bulk, the terms are
+     *    interned on the dictionary
+     *    IOException if the file is corrupted, of another version, of another generation than the expected one, or
+     *    written with another weighting or number of documents : the tfidf would differ
+     */
+    public void initializeFromSnapshot(String filename, long generation) throws IOException {
+        // a stale snapshot is refused on its header, before reading the whole file
+        byte[] header = new byte[SNAPSHOT_HEADER_SIZE];
+        try (DataInputStream headerIn = new DataInputStream(new FileInputStream(filename))) {
+            headerIn.readFully(header);
+        } catch (EOFException e) {
+            throw new IOException(filename + " is not a snapshot file");
+        }
+        checkSnapshotHeader(ByteBuffer.wrap(header), filename, generation);
+
+        byte[] bytes = Files.readAllBytes(new File(filename).toPath());
+        if (bytes.length < SNAPSHOT_HEADER_SIZE + 8) throw new IOException(filename + " is not a snapshot file");
+        CRC32 checksum = new CRC32();
+        checksum.update(bytes, 0, bytes.length - 8);
+        if (checksum.getValue() != ByteBuffer.wrap(bytes, bytes.length - 8, 8).getLong())
+            throw new IOException(filename + " is corrupted : wrong checksum");
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        checkSnapshotHeader(in, filename, generation); // the file may have been replaced since
+
+        List<String> documentsNames = readStrings(in, in.getInt());
+        double[] documentsNorms = new double[documentsNames.size()];
+        readDoubles(in, documentsNorms);
+        int numberOfTerms = in.getInt();
+        int[] prefixes = new int[numberOfTerms];
+        readInts(in, prefixes);
+        int[] lastWords = new int[numberOfTerms];
+        readInts(in, lastWords);
+        List<String> words = readStrings(in, in.getInt());
+        int[] termsIdfs = new int[numberOfTerms];
+        readInts(in, termsIdfs);
+        int[] sizes = new int[numberOfTerms];
+        readInts(in, sizes);
+        long numberOfPostings = 0;
+        for (int size : sizes) {
+            numberOfPostings += size;
+        }
+        IntBuffer documentIds = in.asIntBuffer();
+        in.position(in.position() + (int) (4 * numberOfPostings));
+        DoubleBuffer weights = in.asDoubleBuffer();
+
+        // a n-gram is interned from the ids of its parts, without splitting it
+        int[] ids = new int[numberOfTerms];
+        int numberOfIds = dictionary.size();
+        for (int t = 0, word = 0; t < numberOfTerms; t++) {
+            ids[t] = prefixes[t] < 0 ? dictionary.intern(words.get(word++)) : dictionary.intern(ids[prefixes[t]], ids[lastWords[t]]);
+            numberOfIds = Math.max(numberOfIds, ids[t] + 1);
+        }
+        segment = null;
+        idfs = new int[numberOfIds];
+        postings = new PostingsList[numberOfIds];
+        for (int t = 0; t < numberOfTerms; t++) {
+            idfs[ids[t]] = termsIdfs[t];
+            if (sizes[t] == 0) continue;
+            int[] termDocuments = new int[sizes[t]];
+            double[] termWeights = new double[sizes[t]];
+            documentIds.get(termDocuments);
+            weights.get(termWeights);
+            postings[ids[t]] = new PostingsList(termDocuments, termWeights);
+        }
+        documents = documentsNames;
+        norms = documentsNorms;
+        this.generation = generation;
+        calculateUpperBounds();
+    }
+
+    //read the header of a snapshot : MAGIC, VERSION, generation, weighting and number of documents
+    private void checkSnapshotHeader(ByteBuffer in, String filename, long generation) throws IOException {
+        if (in.getInt() != SNAPSHOT_MAGIC) throw new IOException(filename + " is not a snapshot file");
+        int version = in.getInt();
+        if (version != SNAPSHOT_VERSION)
+            throw new IOException(filename + " has version " + version + ", expected " + SNAPSHOT_VERSION);
+        long snapshotGeneration = in.getLong();
+        if (snapshotGeneration != generation)
+            throw new IOException(filename + " is stale : generation " + snapshotGeneration + ", expected " + generation);
+        Weighting snapshotWeighting = Weighting.read(in);
+        double snapshotNumberOfDocuments = in.getDouble();
+        if (!weighting.equals(snapshotWeighting) || Double.compare(numberOfDocuments, snapshotNumberOfDocuments) != 0)
+            throw new IOException(filename + " was written with another weighting or number of documents");
+    }
+
+    //byte length of each string, then the UTF-8 strings
+    private static void writeStrings(DataOutputStream out, List<String> strings) throws IOException {
+        byte[][] bytes = new byte[strings.size()][];
+        for (int i = 0; i < bytes.length; i++) {
+            bytes[i] = strings.get(i).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(bytes[i].length);
+        }
+        for (byte[] string : bytes) {
+            out.write(string);
+        }
+    }
+
+    private static List<String> readStrings(ByteBuffer in, int numberOfStrings) {
+        int[] lengths = new int[numberOfStrings];
+        readInts(in, lengths);
+        List<String> strings = new ArrayList<>(numberOfStrings);
+        int offset = in.arrayOffset() + in.position();
+        for (int length : lengths) {
+            strings.add(new String(in.array(), offset, length, StandardCharsets.UTF_8));
+            offset += length;
+        }
+        in.position(offset - in.arrayOffset());
+        return strings;
+    }
+
+    private static void readInts(ByteBuffer in, int[] values) {
+        in.asIntBuffer().get(values);
+        in.position(in.position() + 4 * values.length);
+    }
+
+    private static void readDoubles(ByteBuffer in, double[] values) {
+        in.asDoubleBuffer().get(values);
+        in.position(in.position() + 8 * values.length);
+    }
+
+    /*Arguments
+     *  requestWords<WORD, WEIGHT of the word on the request (main word,synonym..etc)>
+     *  k : number of documents to return
+     */
+    /*Return
+     *  the k documents the most similar to the request
+     */
+    public Ranking search(Map<String, Double> requestWords, int k) {
+        if (traceListener == null) return search(requestWords, k, null);
+        QueryTrace trace = new QueryTrace();
+        Ranking ranking = search(requestWords, k, trace);
+        traceListener.accept(trace);
+        return ranking;
+    }
+
+    /*Arguments
+     *  requestWords<WORD, WEIGHT of the word on the request (main word,synonym..etc)>
+     *  k : number of documents to return
+     *  trace : if not null, filled with the phases and the work of the search
+     */
+    /*Return
+     *  the k documents the most similar to the request
+     */
+    public Ranking search(Map<String, Double> requestWords, int k, QueryTrace trace) {
+        if (k <= 0) return new Ranking(new int[0], new double[0]);
+        long startTime = System.nanoTime();
+        if (trace == null && latencyTimer != null) trace = new QueryTrace(); // the work is counted on a trace
+        k = Math.min(k, documents.size());
+        if (trace != null) trace.setRequest(requestWords.keySet(), k);
+        Ranking ranking = null;
+        String key = null;
+        if (resultCache != null) {
+            key = ResultCache.getKey(requestWords, configuration);
+            ranking = resultCache.get(key, k, generation);
+        }
+        if (ranking == null) {
+            long lookUpTime = System.nanoTime();
+            Request request = lookUp(requestWords);
+            if (trace != null) trace.setLookUpTime(System.nanoTime() - lookUpTime);
+            ranking = search(request, k, trace);
+            if (resultCache != null) resultCache.put(key, ranking, generation);
+        } else if (trace != null) {
+            trace.setCached(true);
+        }
+        if (trace != null) {
+            trace.setTotalTime(System.nanoTime() - startTime);
+            record(trace);
+        }
+        return ranking;
+    }
+
+    //add the work of a request to the metrics
+    private void record(QueryTrace trace) {
+        if (latencyTimer == null) return;
+        latencyTimer.record(trace.getTotalTime());
+        requestsCounter.increment();
+        if (trace.isCached()) return;
+        lookUpTimer.record(trace.getLookUpTime());
+        if (!trace.isPruned()) generateResultsTimer.record(trace.getGenerateResultsTime());
+        similarityTimer.record(trace.getSimilarityTime());
+        postingsCounter.add(trace.getPostingsScanned());
+        candidatesCounter.add(trace.getCandidatesScored());
+        heapCounter.add(trace.getHeapOperations());
+    }
+
+    //the k documents the most similar to the request, k <= number of documents
+    private Ranking search(Request request, int k, QueryTrace trace) {
+        int numberOfShards = getNumberOfShards(request);
+        if (trace != null) trace.setNumberOfShards(numberOfShards);
+        if (numberOfShards == 1) return search(request, k, 0, documents.size(), trace);
+
+        /* intra-request parallelism
+         *    the document ids are split in numberOfShards ranges, each one scored on its slice of the postings
+         *    the best k documents of the request are among the best k documents of the shards
+         *    the order of the heap is total (score, then id) : the ranking is the one of a single shard
+         */
+        List<ForkJoinTask<Ranking>> shards = new ArrayList<>();
+        for (int shard = 0; shard < numberOfShards; shard++) {
+            int from = (int) ((long) documents.size() * shard / numberOfShards);
+            int to = (int) ((long) documents.size() * (shard + 1) / numberOfShards);
+            Callable<Ranking> search = () -> search(request, k, from, to, trace);
+            shards.add(ForkJoinTask.adapt(search));
+        }
+        ForkJoinTask.invokeAll(shards); // on the pool of the calling thread if any, else on the common pool
+        TopKHeap heap = new TopKHeap(Math.min(k, documents.size()));
+        for (ForkJoinTask<Ranking> shard : shards) {
+            Ranking shardRanking = shard.join();
+            for (int i = 0; i < shardRanking.size(); i++) {
+                heap.offer(shardRanking.getDocument(i), shardRanking.getScore(i));
+            }
+        }
+        if (trace != null) trace.addHeapOperations(heap.getNumberOfOffers());
+        return heap.toRanking();
+    }
+
+    //number of shards scoring the request : numberOfThreads if it has enough postings, else 1
+    private int getNumberOfShards(Request request) {
+        long numberOfPostings = 0;
+        for (PostingsList wordPostings : request.postings) {
+            if (wordPostings != null) numberOfPostings += wordPostings.size();
+        }
+        long numberOfShards = Math.min(numberOfThreads, numberOfPostings / minimumShardPostings);
+        return (int) Math.max(1, Math.min(numberOfShards, documents.size()));
+    }
+
+    /*Arguments
+     *  request : the request words looked up on the index
+     *  k : number of documents to return
+     *  from, to : range of the ids of the documents searched, to excluded
+     *  trace : if not null, the work of the range is added to it
+     */
+    /*Return
+     *  the k documents of the range the most similar to the request
+     */
+    private Ranking search(Request request, int k, int from, int to, QueryTrace trace) {
+        if (k < to - from && canBePruned(request))
+            return searchWithMaxScore(request, k, from, to, trace);
+
+        long startTime = trace != null ? System.nanoTime() : 0;
+        double[] scores = new double[to - from]; // by document id - from
+        boolean[] matched = new boolean[to - from];
+        long[] postingsScanned = new long[1];
+        int[] matchedDocuments = generateResults(request, scores, matched, from, to, postingsScanned);
+        long similarityTime = trace != null ? System.nanoTime() : 0;
+
+        TopKHeap heap = new TopKHeap(Math.min(k, to - from));
+        for (int document : matchedDocuments) {
+            heap.offer(document, calculateSimilarity(scores[document - from], norms[document], request.norm));
+        }
+        // the documents without any word of the request have a null similarity
+        for (int document = from; document < to; document++) {
+            if (matched[document - from]) continue;
+            if (!heap.offer(document, 0.0) && heap.isFull()) break; // the next ones have a greater id
+        }
+        if (trace != null) {
+            long endTime = System.nanoTime();
+            trace.add(false, postingsScanned[0], matchedDocuments.length, heap.getNumberOfOffers(),
+                    similarityTime - startTime, endTime - similarityTime);
+        }
+        return heap.toRanking();
+    }
+
+    /*Arguments
+     *  requests<Request_ID, <WORD, WEIGHT of the word on the request>>
+     *  k : number of documents to return for each request
+     */
+    /*Return
+     *  rankings<Request_ID, the k documents the most similar to the request>, in the iteration order of requests
+     *  the requests are searched in parallel by numberOfThreads threads, which only read the index
+     */
+    public Map<String, Ranking> searchAll(Map<String, Map<String, Double>> requests, int k) {
+        List<Callable<Ranking>> searches = new ArrayList<>();
+        for (Map<String, Double> requestWords : requests.values()) {
+            searches.add(() -> search(requestWords, k));
+        }
+        ForkJoinPool pool = new ForkJoinPool(numberOfThreads);
+        try {
+            List<Future<Ranking>> results = pool.invokeAll(searches);
+            Map<String, Ranking> rankings = new LinkedHashMap<>();
+            int r = 0;
+            for (String requestID : requests.keySet()) {
+                rankings.put(requestID, results.get(r++).get());
+            }
+            return rankings;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while searching the requests", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) throw (RuntimeException) e.getCause();
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /*Return
+     *  rankings<Request_ID, all the documents sorted by similarity to the request> of the requests of the database
+     *  each request is ranked once : the rankings are shared by the precisions, recalls and precision-recall curve
+     */
+    public Map<String, Ranking> rankRequests() throws SQLException {
+        Map<String, Map<String, Double>> requests = new LinkedHashMap<>();
+        for (String requestID : db.getRequestsID()) {
+            requests.put(requestID, db.getRequestWords(requestID));
+        }
+        return searchAll(requests, documents.size());
+    }
+
+    /* MaxScore dynamic pruning
+     *    the request words are sorted by the upper bound of their contribution to a similarity
+     *    the words whose cumulated upper bounds can't reach the k-th best similarity are "non essential" :
+     *    only the documents of the essential words are candidates, the non essential words are only looked up for
+     *    them and a candidate is dropped as soon as its similarity can't reach the k-th best one anymore
+     *    the documents are visited by increasing id, so a dropped candidate would have lost the tie anyway
+     */
+    private Ranking searchWithMaxScore(Request request, int k, int from, int to, QueryTrace trace) {
+        long startTime = trace != null ? System.nanoTime() : 0;
+        long postingsScanned = 0;
+        long candidatesScored = 0;
+        int numberOfWords = request.weights.length;
+        double[] weights = request.weights;
+        int[] wordIdfs = request.idfs;
+        PostingsList[] wordsPostings = request.postings;
+        double normRequest = request.norm;
+        double[] upperBounds = new double[numberOfWords];
+        List<Integer> presentWords = new ArrayList<>();
+        for (int w = 0; w < numberOfWords; w++) {
+            if (wordsPostings[w] != null) {
+                // 1 + epsilon to cover the rounding errors of the similarity computation
+                upperBounds[w] = calculateWeightInRequest(wordsPostings[w].getUpperBound(), weights[w], wordIdfs[w])
+                        * requestUpperBoundFactor(normRequest) * (1 + 1e-9);
+                presentWords.add(w);
+            }
+        }
+        presentWords.sort(Comparator.comparingDouble(word -> upperBounds[word]));
+
+        int numberOfPresentWords = presentWords.size();
+        int[] sortedWords = new int[numberOfPresentWords];
+        int[] positions = new int[numberOfPresentWords];
+        double[] cumulatedUpperBounds = new double[numberOfPresentWords];
+        for (int i = 0; i < numberOfPresentWords; i++) {
+            sortedWords[i] = presentWords.get(i);
+            cumulatedUpperBounds[i] = (i == 0 ? 0.0 : cumulatedUpperBounds[i - 1]) + upperBounds[sortedWords[i]];
+        }
+
+        for (int i = 0; i < numberOfPresentWords; i++) {
+            positions[i] = wordsPostings[sortedWords[i]].advance(0, from);
+        }
+
+        TopKHeap heap = new TopKHeap(k);
+        boolean[] visited = new boolean[to - from]; // by document id - from
+        double[] contributions = new double[numberOfWords]; // contribution of each request word to D inter Q
+        int firstEssential = 0;
+        while (true) {
+            if (heap.isFull()) {
+                while (firstEssential < numberOfPresentWords && cumulatedUpperBounds[firstEssential] <= heap.getMinScore())
+                    firstEssential++;
+            }
+            // next candidate : the smallest document id of the essential words
+            int document = Integer.MAX_VALUE;
+            for (int i = firstEssential; i < numberOfPresentWords; i++) {
+                PostingsList wordPostings = wordsPostings[sortedWords[i]];
+                if (positions[i] < wordPostings.size())
+                    document = Math.min(document, wordPostings.getDocument(positions[i]));
+            }
+            if (document >= to) break;
+            visited[document - from] = true;
+            candidatesScored++;
+
+            Arrays.fill(contributions, 0.0);
+            double score = 0.0;
+            for (int i = firstEssential; i < numberOfPresentWords; i++) {
+                int word = sortedWords[i];
+                PostingsList wordPostings = wordsPostings[word];
+                if (positions[i] < wordPostings.size() && wordPostings.getDocument(positions[i]) == document) {
+                    contributions[word] = calculateWeightInRequest(wordPostings.getWeight(positions[i]), weights[word], wordIdfs[word]);
+                    score += contributions[word];
+                    positions[i]++;
+                    postingsScanned++;
+                }
+            }
+            boolean pruned = false;
+            for (int i = firstEssential - 1; i >= 0; i--) {
+                if (heap.isFull() && calculateSimilarity(score, norms[document], normRequest) + cumulatedUpperBounds[i] <= heap.getMinScore()) {
+                    pruned = true;
+                    break;
+                }
+                int word = sortedWords[i];
+                PostingsList wordPostings = wordsPostings[word];
+                positions[i] = wordPostings.advance(positions[i], document);
+                if (positions[i] < wordPostings.size() && wordPostings.getDocument(positions[i]) == document) {
+                    contributions[word] = calculateWeightInRequest(wordPostings.getWeight(positions[i]), weights[word], wordIdfs[word]);
+                    score += contributions[word];
+                    postingsScanned++;
+                }
+            }
+            if (pruned) continue;
+
+            // summed in the request order, as generateResults does
+            score = 0.0;
+            for (double contribution : contributions) {
+                score += contribution;
+            }
+            heap.offer(document, calculateSimilarity(score, norms[document], normRequest));
+        }
+        // the documents without any word of the request have a null similarity
+        for (int document = from; document < to; document++) {
+            if (visited[document - from]) continue;
+            if (!heap.offer(document, 0.0) && heap.isFull()) break; // the next ones have a greater id
+        }
+        if (trace != null)
+            trace.add(true, postingsScanned, candidatesScored, heap.getNumberOfOffers(), 0, System.nanoTime() - startTime);
+        return heap.toRanking();
+    }
+
+    //the pruning needs non negative and finite upper bounds for every word of the request
+    private boolean canBePruned(Request request) {
+        double requestFactor = requestUpperBoundFactor(request.norm);
+        if (Double.isNaN(requestFactor) || Double.isInfinite(requestFactor)) return false;
+        for (int w = 0; w < request.weights.length; w++) {
+            if (request.postings[w] == null) continue;
+            double upperBound = calculateWeightInRequest(request.postings[w].getUpperBound(), request.weights[w], request.idfs[w]);
+            if (Double.isNaN(upperBound) || Double.isInfinite(upperBound) || upperBound < 0) return false;
+            if (request.weights[w] < 0) return false;
+        }
+        return true;
+    }
+
+    /* calculate for each word the upper bound of its contribution to the similarity of a document
+     *    the part depending on the request (weight of the word, ||Q||) is applied on searchWithMaxScore
+     *    NaN if it can't be bounded (jaccard similarity, negative or infinite tfidf)
+     */
+    private void calculateUpperBounds() {
+        for (PostingsList wordPostings : postings) {
+            if (wordPostings != null) calculateUpperBound(wordPostings);
+        }
+    }
+
+    private void calculateUpperBound(PostingsList wordPostings) {
+        double upperBound = jaccard ? Double.NaN : 0.0;
+        for (int i = 0; i < wordPostings.size() && !Double.isNaN(upperBound); i++) {
+            double weight = wordPostings.getWeight(i);
+            double norm = norms[wordPostings.getDocument(i)];
+            double contribution;
+            if (cosinus) {
+                contribution = weight / Math.sqrt(norm);
+            } else if (dice) {
+                contribution = 2.0 * weight / norm; // ||Q|| >= 0
+            } else {
+                contribution = weight;
+            }
+            if (weight < 0 || Double.isNaN(contribution) || Double.isInfinite(contribution)) upperBound = Double.NaN;
+            else upperBound = Math.max(upperBound, contribution);
+        }
+        wordPostings.setUpperBound(upperBound);
+    }
+
+    /*Arguments
+     *  Map<WORD, WEIGHT of the word on the request (main word,synonym..etc)>
+     */
+    /*Return
+     *  the request words with their postings and idf, and ||Q||
+     */
+    private Request lookUp(Map<String, Double> requestWords) {
+        Request request = new Request();
+        request.weights = new double[requestWords.size()];
+        request.idfs = new int[requestWords.size()];
+        request.postings = new PostingsList[requestWords.size()];
+        int w = 0;
+        for (Map.Entry<String, Double> wordWeight : requestWords.entrySet()) {
+            String word = wordWeight.getKey();
+            request.weights[w] = wordWeight.getValue();
+            request.postings[w] = getPostings(word);
+            request.idfs[w] = this.idfRequest ? getIdf(word, request.postings[w]) : 0;
+            w++;
+        }
+        request.norm = calculateRequestNorm(request);
+        return request;
+    }
+
+    //postings of a word weighted with tfidf, null if the word is absent
+    private PostingsList getPostings(String word) {
+        if (segment == null) {
+            int term = dictionary.getId(word);
+            return term >= 0 && term < postings.length ? postings[term] : null;
+        }
+        PostingsList wordPostings = postingsCache != null ? postingsCache.get(word) : null;
+        if (wordPostings != null) return wordPostings;
+        wordPostings = weightedSegment != null ? weightedSegment.getWeightedPostings(word) : segment.getPostings(word);
+        if (wordPostings == null) return null;
+        if (weightedSegment == null) {
+            double idf = Math.log(this.numberOfDocuments / wordPostings.size());
+            for (int i = 0; i < wordPostings.size(); i++) {
+                double normalization = weighting.getNormalization(segment.getMaxFrequency(wordPostings.getDocument(i)));
+                wordPostings.setWeight(i, weighting.calculateTF(wordPostings.getWeight(i), normalization) * idf);
+            }
+        }
+        calculateUpperBound(wordPostings);
+        if (postingsCache != null) postingsCache.put(word, wordPostings);
+        return wordPostings;
+    }
+
+    //number of documents containing a word, 0 if the word is absent
+    //on a segment, the size of its postings (see getPostings) : the segments are not read a second time
+    private int getIdf(String word, PostingsList wordPostings) {
+        if (segment == null) {
+            int term = dictionary.getId(word);
+            return term >= 0 && term < idfs.length ? idfs[term] : 0;
+        }
+        return wordPostings == null ? 0 : wordPostings.size();
+    }
+
+    //part of the upper bound of a word contribution depending on ||Q||
+    private double requestUpperBoundFactor(double normRequest) {
+        return cosinus ? 1.0 / Math.sqrt(normRequest) : 1.0;
+    }
+
+    /*Arguments
+     *  requestWords<WORD, WEIGHT of the word on the request (main word,synonym..etc)>
+     */
+    /*Return
+     *  all the documents sorted by similarity to the request
+     */
+    public Ranking rank(Map<String, Double> requestWords) {
+        return search(requestWords, documents.size());
+    }
+
+    public String getDocumentName(int document) {
+        return documents.get(document);
+    }
+
+    /*Arguments
+     *  atResult : 5,10 or 25
+     */
+    /*Return
+     *  requestPrecision<Request_ID :Q1..Q11,number of pertinent document>
+     */
+    public Map<String, Integer> getNumberOfPertinentDocuments(int atResult) throws SQLException {
+        Map<String, Map<String, Double>> requests = new LinkedHashMap<>();
+        for (String requestID : db.getRequestsID()) {
+            requests.put(requestID, db.getRequestWords(requestID));
+        }
+        return getNumberOfPertinentDocuments(searchAll(requests, atResult), atResult);
+    }
+
+    /*Arguments
+     *  rankings<Request_ID, (Q&D) Similarity sorted by value, at least the atResult first documents> (see rankRequests)
+     *  atResult : 5,10 or 25
+     */
+    /*Return
+     *  requestPrecision<Request_ID :Q1..Q11,number of pertinent document>
+     */
+    public Map<String, Integer> getNumberOfPertinentDocuments(Map<String, Ranking> rankings, int atResult) throws SQLException {
+        Map<String, Integer> requestPrecision = new HashMap<>();
+        for (Map.Entry<String, Ranking> requestRanking : rankings.entrySet()) {
+            List<String> requestResults = getRequestResults(requestRanking.getKey());
+            requestPrecision.put(requestRanking.getKey(), getNumberOfPertinentDocuments(requestRanking.getValue(), atResult, requestResults));
+        }
+        return requestPrecision;
+    }
+
+    /*Arguments
+     *  results<(Q&D) Similarity sorted by value>
+     *  atResult : number of first documents of results counted
+     *  requestResults<Relevant document for this request according to user>
+     */
+    /*Return
+     *  number of pertinent documents (our result inter user result)
+     */
+    private Integer getNumberOfPertinentDocuments(Ranking results, int atResult, List<String> requestResults) {
+        int count = 0;
+        for (int i = 0; i < Math.min(atResult, results.size()); i++) {
+            if (requestResults.contains(documents.get(results.getDocument(i)))) count++;
+        }
+        return count;
+    }
+
+    /*Arguments
+     *  score : D inter Q
+     *  norm : ||D||
+     *  normRequest : ||Q||
+     */
+    /*Return
+     * Similarity of D and Q
+     */
+    private double calculateSimilarity(double score, double norm, double normRequest) {
+        if (cosinus) {
+            return score / Math.sqrt(norm * normRequest);
+        } else if (jaccard) {
+            return score / (norm + normRequest - score);
+        } else if (dice) {
+            return 2.0 * score / (norm + normRequest);
+        }
+        return score;
+    }
+
+    /*Arguments
+     *  request words with their WEIGHT on the request (main word,synonym..etc) and idf
+     */
+    /*Return
+     *  the norm of the request ||Q||
+     */
+    private double calculateRequestNorm(Request request) {
+        double norm = 0.0;
+        for (int w = 0; w < request.weights.length; w++) {
+            double weight = request.weights[w];
+            int idf = request.idfs[w];
+
+            double value = this.idfRequest ? 1.0 * idf : 1.0;
+            if (synonymsWeights)
+                value = value * weight;
+
+            norm += Math.pow(value, 2);
+        }
+        return norm;
+    }
+
+    /*Arguments
+     *  request words with their WEIGHT on the request (main word,synonym..etc), idf and postings
+     *  scores : filled with D inter Q(similarité par produit scalaire) by document id - from
+     *  matched : filled with true for the documents containing at least one word of the request, by document id - from
+     *  from, to : range of the ids of the documents scored, to excluded
+     *  postingsScanned : its first element is incremented by the number of postings read
+     */
+    /*Return
+     *  ids of the documents of the range containing at least one word of the request
+     */
+    private int[] generateResults(Request request, double[] scores, boolean[] matched, int from, int to, long[] postingsScanned) {
+        // only the postings of the request words are visited
+        int[] matchedDocuments = new int[16];
+        int numberOfMatched = 0;
+        for (int w = 0; w < request.weights.length; w++) {
+            PostingsList wordPostings = request.postings[w];
+            if (wordPostings == null) continue;
+
+            double weight = request.weights[w];
+            int idf = request.idfs[w];
+            int first = wordPostings.advance(0, from);
+            int i = first;
+            for (; i < wordPostings.size() && wordPostings.getDocument(i) < to; i++) {
+                int document = wordPostings.getDocument(i);
+                scores[document - from] += calculateWeightInRequest(wordPostings.getWeight(i), weight, idf);
+                if (!matched[document - from]) {
+                    matched[document - from] = true;
+                    if (numberOfMatched == matchedDocuments.length)
+                        matchedDocuments = Arrays.copyOf(matchedDocuments, numberOfMatched * 2);
+                    matchedDocuments[numberOfMatched++] = document;
+                }
+            }
+            postingsScanned[0] += i - first;
+        }
+        return Arrays.copyOf(matchedDocuments, numberOfMatched);
+    }
+
+    /*Arguments
+     *  tfidf : weight of the word on a document
+     *  weight : weight of the word on the request (main word,synonym..etc)
+     *  idf : number of documents containing the word, only used if idfRequest
+     */
+    /*Return
+     *  contribution of the word to D inter Q
+     */
+    private double calculateWeightInRequest(double tfidf, double weight, int idf) {
+        double sum = tfidf;
+        if (synonymsWeights)
+            sum = sum * weight;
+        if (idfRequest)
+            sum = sum * idf;
+        return sum;
+    }
+
+    /* calculate tfidf
+     *    build the postings (term id -> documents containing it) weighted with tfidf
+     *    calculate  foreach document D his norm ||D||=sum(tfidf^2) and place the result on norms array
+     *    documents ids follow the iteration order of the inverted index
+     */
+    private void buildPostingsWithTFIDFAndCalculateNorms(Map<String, Map<String, Double>> invertedIndex) {
+        postings = new PostingsList[idfs.length];
+        // document id - norm
+        norms = new double[documents.size()];
+        for (int document = 0; document < documents.size(); document++) {
+            Map<String, Double> wordsFreqs = invertedIndex.get(documents.get(document));
+            double normalization = weighting.getNormalization(Collections.max(wordsFreqs.values()));
+            for (Map.Entry<String, Double> wordFreq : wordsFreqs.entrySet()) {
+                int term = dictionary.intern(wordFreq.getKey());
+                // Appliance of TF-IDF...
+                double tf = weighting.calculateTF(wordFreq.getValue(), normalization);
+                double idf = Math.log(this.numberOfDocuments / idfs[term]);
+                double tfidf = tf * idf;
+                norms[document] += Math.pow(tfidf, 2);
+                if (postings[term] == null) postings[term] = new PostingsList();
+                postings[term].add(document, tfidf);
+            }
+            norms[document] = Math.sqrt(norms[document]);
+        }
+    }
+
+    /* calculate  foreach document D of a segment his norm ||D||=sum(tfidf^2) and place the result on norms array
+     *    one sequential pass on the postings of the segment, nothing is kept but the norms
+     */
+    private void calculateNorms(IndexReader segment) {
+        norms = new double[documents.size()];
+        segment.forEachPosting((documentFrequency, document, frequency) -> {
+            double tfidf = weighting.calculateTFIDF(frequency, segment.getMaxFrequency(document), documentFrequency, this.numberOfDocuments);
+            norms[document] += Math.pow(tfidf, 2);
+        });
+        for (int document = 0; document < norms.length; document++) {
+            norms[document] = Math.sqrt(norms[document]);
+        }
+    }
+
+    /*Arguments
+     *   atPrecision 5,10 or 25
+     *  result<Request_ID :Q1..Q11,number of pertinent document>
+     */
+    /*Return
+     *
+     */
+    public void printPrecision(int atPrecision, Map<String, Integer> result) {
+        System.out.println("P@" + atPrecision + ":");
+        double precisionAcum = 0;
+        for (Map.Entry<String, Integer> requestNumberOfPertinents : result.entrySet()) {
+            double precision = requestNumberOfPertinents.getValue() / (double) atPrecision;
+            System.out.println("\tREQUEST " + requestNumberOfPertinents.getKey() + " = " + precision);
+            precisionAcum += precision;
+        }
+        double meanPrecision = precisionAcum/result.size();
+        System.out.println("\n\tMean P@" + atPrecision + "= " + meanPrecision + "\n");
+    }
+
+    /*Arguments
+     *   atRecall 5,10 or 25
+     *  result<Request_ID :Q1..Q11,number of pertinent document>
+     */
+    /*Return
+     *
+     */
+    public void printRecall(int atRecall, Map<String, Integer> result) throws SQLException {
+        System.out.println("R@" + atRecall + ":");
+        double recallAcum = 0;
+        for (Map.Entry<String, Integer> requestNumberOfPertinents : result.entrySet()) {
+            double recall = requestNumberOfPertinents.getValue() / (double) getRequestResults(requestNumberOfPertinents.getKey()).size();
+            System.out.println("\tREQUEST " + requestNumberOfPertinents.getKey() + " = " + recall);
+            recallAcum += recall;
+        }
+        double meanPrecision = recallAcum/result.size();
+        System.out.println("\n\tMean R@" + atRecall + "= " + meanPrecision + "\n");
+    }
+
+    /*Arguments
+     *   double[] recalls = {0, 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0};
+     */
+    /*Return
+     *
+     */
+    public void getInterpolatedPrecisionRecallCurvePoints(double[] recalls) throws SQLException {
+        getInterpolatedPrecisionRecallCurvePoints(rankRequests(), recalls);
+    }
+
+    /*Arguments
+     *   rankings<Request_ID, all the documents sorted by similarity to the request> (see rankRequests)
+     *   double[] recalls = {0, 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0};
+     */
+    public void getInterpolatedPrecisionRecallCurvePoints(Map<String, Ranking> rankings, double[] recalls) throws SQLException {
+        System.out.println("==================================================== Precision-Recall Curve Points ====================================================");
+        for (Map.Entry<String, Ranking> requestRanking : rankings.entrySet()) {
+            String requestID = requestRanking.getKey();
+            List<String> requestResults = getRequestResults(requestID);
+            Ranking results = requestRanking.getValue();
+
+            int amountOfPertinentResults = requestResults.size();
+            System.out.println("\n---------- REQUEST " + requestID + " ----------");
+            for (double recall : recalls) {
+                double amountDocumentsToFind = amountOfPertinentResults * recall;
+                double precision = getPrecisionForRecall(amountDocumentsToFind, results, requestResults);
+                System.out.println(precision);
+            }
+        }
+    }
+
+    //pertinent documents of a request, read once from the database
+    private List<String> getRequestResults(String requestID) throws SQLException {
+        List<String> requestResults = requestsResults.get(requestID);
+        if (requestResults == null) {
+            requestResults = db.getRequestResults(requestID);
+            requestsResults.put(requestID, requestResults);
+        }
+        return requestResults;
+    }
+
+    private double getPrecisionForRecall(double amountDocumentsToFind, Ranking results, List<String> requestResults) {
+        double i = 0.0;
+        int amountDocumentsFound = 0;
+        double maxPrecision = 0.0;
+        for (int rank = 0; rank < results.size(); rank++) {
+            if (requestResults.contains(documents.get(results.getDocument(rank)))) amountDocumentsFound++;
+            i++;
+            double precision = amountDocumentsFound/i;
+            if (amountDocumentsFound >= amountDocumentsToFind && maxPrecision < precision) maxPrecision = precision;
+        }
+        return maxPrecision;
+    }
+}
@@ -0,0 +1,74 @@
+package fr.insa;
+
+import java.util.*;
+
+/* bounded cache of the weighted postings of the words read from the segments, shared by the searching threads
+ *    the postings of the frequent words and n-grams are read and weighted once, then served from memory
+ *    the least recently used postings are evicted when the cache holds more than maxBytes (see PostingsList.getMemorySize)
+ *    the cached postings are weighted for one evaluator and one index : the cache is emptied when it loads another one
+ */
+public class PostingsCache {
+
+    private long maxBytes;
+    private long bytes; //memory size of the cached postings
+    private LinkedHashMap<String, PostingsList> postings; //in access order, the least recently used first
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    //maxBytes : memory budget of the cached postings
+    public PostingsCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+        postings = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    //the cached postings of a word, null if not cached
+    public synchronized PostingsList get(String word) {
+        PostingsList wordPostings = postings.get(word);
+        if (wordPostings == null) misses++;
+        else hits++;
+        return wordPostings;
+    }
+
+    //keep the postings of a word, which must not be changed anymore
+    public synchronized void put(String word, PostingsList wordPostings) {
+        long size = wordPostings.getMemorySize();
+        if (size > maxBytes) return;
+        PostingsList previous = postings.put(word, wordPostings);
+        if (previous != null) bytes -= previous.getMemorySize();
+        bytes += size;
+        Iterator<PostingsList> leastRecentlyUsed = postings.values().iterator();
+        while (bytes > maxBytes) {
+            bytes -= leastRecentlyUsed.next().getMemorySize();
+            leastRecentlyUsed.remove();
+            evictions++;
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    public synchronized long getEvictions() {
+        return evictions;
+    }
+
+    //memory size of the cached postings
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    //number of cached words
+    public synchronized int size() {
+        return postings.size();
+    }
+
+    public synchronized void clear() {
+        postings.clear();
+        bytes = 0;
+    }
+}
@@ -0,0 +1,124 @@
+package fr.insa;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/* what the search of one request did and how long each phase took (see Evaluator.search)
+ *    the shards of a request add their work at the same time : the adders are synchronized
+ *    the times of generateResults and calculateSimilarity are summed over the shards
+ */
+public class QueryTrace {
+
+    private List<String> words = new ArrayList<>();
+    private int k;
+    private boolean cached; //the ranking was found on the result cache
+    private int numberOfShards;
+    private boolean pruned; //scored with MaxScore
+    private long postingsScanned; //postings of the request words whose weight was read
+    private long candidatesScored; //documents whose similarity was computed
+    private long heapOperations; //offers to the top k heaps
+    private long lookUpTime; //ns
+    private long generateResultsTime; //ns
+    private long similarityTime; //ns
+    private long totalTime; //ns
+
+    void setRequest(Iterable<String> words, int k) {
+        this.words.clear();
+        for (String word : words) {
+            this.words.add(word);
+        }
+        this.k = k;
+    }
+
+    void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
+    void setNumberOfShards(int numberOfShards) {
+        this.numberOfShards = numberOfShards;
+    }
+
+    void setLookUpTime(long lookUpTime) {
+        this.lookUpTime = lookUpTime;
+    }
+
+    void setTotalTime(long totalTime) {
+        this.totalTime = totalTime;
+    }
+
+    //work of one shard
+    synchronized void add(boolean pruned, long postingsScanned, long candidatesScored, long heapOperations,
+                          long generateResultsTime, long similarityTime) {
+        this.pruned |= pruned;
+        this.postingsScanned += postingsScanned;
+        this.candidatesScored += candidatesScored;
+        this.heapOperations += heapOperations;
+        this.generateResultsTime += generateResultsTime;
+        this.similarityTime += similarityTime;
+    }
+
+    synchronized void addHeapOperations(long heapOperations) {
+        this.heapOperations += heapOperations;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    public synchronized boolean isPruned() {
+        return pruned;
+    }
+
+    public int getNumberOfShards() {
+        return numberOfShards;
+    }
+
+    public synchronized long getPostingsScanned() {
+        return postingsScanned;
+    }
+
+    public synchronized long getCandidatesScored() {
+        return candidatesScored;
+    }
+
+    public synchronized long getHeapOperations() {
+        return heapOperations;
+    }
+
+    public long getLookUpTime() {
+        return lookUpTime;
+    }
+
+    public synchronized long getGenerateResultsTime() {
+        return generateResultsTime;
+    }
+
+    public synchronized long getSimilarityTime() {
+        return similarityTime;
+    }
+
+    public long getTotalTime() {
+        return totalTime;
+    }
+
+    //one line of JSON, times in ms
+    public synchronized String toJson() {
+        StringBuilder json = new StringBuilder("{\"words\": [");
+        for (int w = 0; w < words.size(); w++) {
+            if (w > 0) json.append(", ");
+            json.append('"').append(words.get(w).replace("\\", "\\\\").replace("\"", "\\\"")).append('"');
+        }
+        return json.append("], \"k\": ").append(k)
+                .append(", \"cached\": ").append(cached)
+                .append(", \"shards\": ").append(numberOfShards)
+                .append(", \"pruned\": ").append(pruned)
+                .append(", \"postingsScanned\": ").append(postingsScanned)
+                .append(", \"candidatesScored\": ").append(candidatesScored)
+                .append(", \"heapOperations\": ").append(heapOperations)
+                .append(", \"lookUpMs\": ").append(lookUpTime / 1e6)
+                .append(", \"generateResultsMs\": ").append(generateResultsTime / 1e6)
+                .append(", \"similarityMs\": ").append(similarityTime / 1e6)
+                .append(", \"totalMs\": ").append(totalTime / 1e6)
+                .append('}').toString();
+    }
+}
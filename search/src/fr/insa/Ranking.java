@@ -0,0 +1,33 @@
+package fr.insa;
+
+import java.util.Arrays;
+
+//documents ids of a request result sorted from the most similar to the least similar, with their similarity
+public class Ranking {
+
+    private int[] documents;
+    private double[] scores;
+
+    public Ranking(int[] documents, double[] scores) {
+        this.documents = documents;
+        this.scores = scores;
+    }
+
+    public int size() {
+        return documents.length;
+    }
+
+    public int getDocument(int rank) {
+        return documents[rank];
+    }
+
+    public double getScore(int rank) {
+        return scores[rank];
+    }
+
+    //the k first documents, this ranking if it has no more than k documents
+    public Ranking getFirst(int k) {
+        if (k >= documents.length) return this;
+        return new Ranking(Arrays.copyOf(documents, k), Arrays.copyOf(scores, k));
+    }
+}
@@ -0,0 +1,99 @@
+package fr.insa;
+
+import java.util.*;
+
+/* bounded cache of the rankings of the requests, shared by the searching threads
+ *    a ranking is found with the request words, their weights and the configuration of the similarity (see getKey)
+ *    the least recently used rankings are evicted when the cache holds more than maxResults (document, score) pairs
+ *    the cache is emptied when the generation of the searched index changes
+ */
+public class ResultCache {
+
+    private int maxResults;
+    private int numberOfResults; //number of (document, score) pairs of the cached rankings
+    private LinkedHashMap<String, Ranking> rankings; //in access order, the least recently used first
+    private long generation;
+    private long hits;
+    private long misses;
+
+    //maxResults : max number of (document, score) pairs of the cached rankings
+    public ResultCache(int maxResults) {
+        this.maxResults = maxResults;
+        rankings = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /*Arguments
+     *  requestWords<WORD, WEIGHT of the word on the request (main word,synonym..etc)>
+     *  configuration : the similarity and the weighting computing the ranking (see Evaluator)
+     */
+    /*Return
+     *  the key of the ranking, the same whatever the order of the request words
+     */
+    public static String getKey(Map<String, Double> requestWords, String configuration) {
+        List<String> words = new ArrayList<>(requestWords.keySet());
+        Collections.sort(words);
+        StringBuilder key = new StringBuilder(configuration);
+        for (String word : words) {
+            key.append('\u0000').append(word).append('\u0000').append(requestWords.get(word));
+        }
+        return key.toString();
+    }
+
+    /*Arguments
+     *  key : see getKey
+     *  k : number of documents needed
+     *  generation : generation of the searched index
+     */
+    /*Return
+     *  the k first documents of the cached ranking, null if it is absent or has less than k documents
+     */
+    public synchronized Ranking get(String key, int k, long generation) {
+        checkGeneration(generation);
+        Ranking ranking = rankings.get(key);
+        if (ranking == null || ranking.size() < k) {
+            misses++;
+            return null;
+        }
+        hits++;
+        return ranking.getFirst(k);
+    }
+
+    //keep the ranking of a request, the previous one of the request is replaced
+    public synchronized void put(String key, Ranking ranking, long generation) {
+        checkGeneration(generation);
+        if (ranking.size() > maxResults) return;
+        Ranking previous = rankings.put(key, ranking);
+        if (previous != null) numberOfResults -= previous.size();
+        numberOfResults += ranking.size();
+        Iterator<Ranking> leastRecentlyUsed = rankings.values().iterator();
+        while (numberOfResults > maxResults) {
+            numberOfResults -= leastRecentlyUsed.next().size();
+            leastRecentlyUsed.remove();
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    //number of cached rankings
+    public synchronized int size() {
+        return rankings.size();
+    }
+
+    public synchronized void clear() {
+        rankings.clear();
+        numberOfResults = 0;
+    }
+
+    //the rankings of another generation of the index are dropped
+    private void checkGeneration(long generation) {
+        if (generation == this.generation) return;
+        clear();
+        this.generation = generation;
+    }
+}
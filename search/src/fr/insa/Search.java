@@ -0,0 +1,164 @@
+package fr.insa;
+
+import java.io.File;
+import java.io.IOException;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+//evaluation : rank the requests on the inverted index built by the Indexer, and print their precisions and recalls
+public class Search {
+
+    // Use idf also in the request vector (And not only 1/0 for present/absent)
+    private static boolean idfRequest = false;
+
+    // Ways of calculating the similarity between documents and queries
+    // Warning: Only one of the next ones must be in true (or none for scalar product...)
+    private static boolean cosinus = true;
+    private static boolean jaccard = false;
+    private static boolean dice = false;
+
+    // Using weight for the synonyms/relations
+    private static boolean synonymsWeights = true;
+
+    // Load the Evaluator from the segments written by the Indexer instead of the database
+    private static boolean useSegment = false;
+    // Snapshot of the index loaded from the database (tfidf, idfs, norms, documents), loaded instead of the database
+    // while it is of the generation of the database, else written again after loading the database, null = no snapshot
+    private static String snapshotFile = "evaluator.snapshot";
+
+    // Number of threads searching the requests of the evaluation
+    private static int searchThreads = Runtime.getRuntime().availableProcessors();
+    // Max number of (document, similarity) pairs of the cached rankings of the requests, 0 = no cache
+    private static int resultCacheSize = 1_000_000;
+    // Memory budget (bytes) of the postings read from the segments and kept for the next requests (when useSegment = true)
+    private static long postingsCacheSize = 64L << 20;
+
+    // File of the metrics of the search (latency by similarity, postings scanned, candidates scored...),
+    // in the Prometheus text format if it ends with .prom, else in JSON, null = no metrics
+    private static String metricsFile = "search-metrics.json";
+    // Print the trace of each request searched : phases, shards, postings scanned, candidates scored
+    private static boolean traceRequests = false;
+
+
+    public static void main(String[] args) {
+        Database db = new Database(Settings.databaseName);
+        long startTime = System.currentTimeMillis();
+        int[] atResults = {5, 10, 25};
+        double[] recalls = {0, 0.1, 0.2, 0.3, 0.4, 0.5, 0.6, 0.7, 0.8, 0.9, 1.0};
+        Metrics metrics = metricsFile != null ? new Metrics() : null;
+        try {
+            Evaluator evaluator = createEvaluator(db, metrics);
+            if (traceRequests) evaluator.setTraceListener(trace -> System.out.println("Trace : " + trace.toJson()));
+            printElapsedTime(startTime);
+            // each request is ranked once, its ranking gives all the precisions, recalls and curve points
+            Map<String, Ranking> rankings = evaluator.rankRequests();
+            for (int atResult : atResults) {
+                Map<String, Integer> result = evaluator.getNumberOfPertinentDocuments(rankings, atResult);
+                evaluator.printPrecision(atResult, result);
+                evaluator.printRecall(atResult, result);
+            }
+            evaluator.getInterpolatedPrecisionRecallCurvePoints(rankings, recalls);
+            printCaches(evaluator);
+            if (metrics != null) {
+                metrics.write(metricsFile);
+                System.out.println("Metrics written on " + metricsFile);
+            }
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+        }
+        db.close();
+    }
+
+    /*Arguments
+     *  db : database filled by the Indexer
+     *  metrics : if not null, the searches and the caches are recorded on it
+     */
+    /*Return
+     *  an initialized evaluator, on the segments if useSegment and they are of the generation of the database,
+     *  else on the snapshot if it is of the generation of the database, else on the database
+     */
+    static Evaluator createEvaluator(Database db, Metrics metrics) throws SQLException {
+        TermDictionary dictionary = new TermDictionary();
+        // the segments are only read : the index is not closed, which would commit it again
+        SegmentedIndex index = null;
+        if (useSegment) {
+            try {
+                index = SegmentedIndex.open(Settings.segmentDirectory, dictionary, Settings.getWeighting(), 1, 2);
+            } catch (IOException e) {
+                e.printStackTrace();
+            }
+        }
+        Evaluator evaluator = new Evaluator(db, dictionary, db.getNumberOfDocuments(), Settings.tfNormalized, cosinus, jaccard, dice,
+                idfRequest, Settings.tfMultiply, Settings.tfDiv, Settings.tfLog, synonymsWeights, searchThreads);
+        ResultCache resultCache = resultCacheSize > 0 ? new ResultCache(resultCacheSize) : null;
+        PostingsCache postingsCache = postingsCacheSize > 0 ? new PostingsCache(postingsCacheSize) : null;
+        evaluator.setResultCache(resultCache);
+        evaluator.setPostingsCache(postingsCache);
+        evaluator.setMetrics(metrics);
+        if (metrics != null && resultCache != null) {
+            metrics.gauge("result_cache_hits", resultCache::getHits);
+            metrics.gauge("result_cache_misses", resultCache::getMisses);
+        }
+        if (metrics != null && postingsCache != null) {
+            metrics.gauge("postings_cache_hits", postingsCache::getHits);
+            metrics.gauge("postings_cache_misses", postingsCache::getMisses);
+            metrics.gauge("postings_cache_bytes", postingsCache::getBytes);
+        }
+        boolean loadSegments = index != null;
+        if (loadSegments && index.getGeneration() != db.getGeneration()) {
+            System.out.println("The segments of " + Settings.segmentDirectory + " are stale, loading the database instead");
+            loadSegments = false;
+        }
+        if (loadSegments) {
+            evaluator.initialize(index.getReader());
+        } else if (!loadSnapshot(evaluator, db.getGeneration())) {
+            evaluator.initialize();
+            writeSnapshot(evaluator);
+        }
+        return evaluator;
+    }
+
+    //return true if the evaluator was initialized on a snapshot of the current generation
+    private static boolean loadSnapshot(Evaluator evaluator, long generation) {
+        if (snapshotFile == null || !new File(snapshotFile).isFile()) return false;
+        try {
+            evaluator.initializeFromSnapshot(snapshotFile, generation); // a stale snapshot is refused on its header
+        } catch (IOException e) {
+            System.out.println("The snapshot " + snapshotFile + " can't be loaded, loading the database instead : " + e.getMessage());
+            return false;
+        }
+        return true;
+    }
+
+    private static void writeSnapshot(Evaluator evaluator) {
+        if (snapshotFile == null) return;
+        try {
+            evaluator.writeSnapshot(snapshotFile);
+        } catch (IOException e) {
+            e.printStackTrace();
+        }
+    }
+
+
+
+    private static void printCaches(Evaluator evaluator) {
+        ResultCache resultCache = evaluator.getResultCache();
+        if (resultCache != null)
+            System.out.println("Result cache : " + resultCache.getHits() + " hits, " + resultCache.getMisses() + " misses");
+        PostingsCache postingsCache = evaluator.getPostingsCache();
+        if (postingsCache != null && evaluator.isLoadedFromSegments())
+            System.out.println("Postings cache : " + postingsCache.getHits() + " hits, " + postingsCache.getMisses() + " misses, "
+                    + postingsCache.getEvictions() + " evictions, " + postingsCache.size() + " words, " + postingsCache.getBytes() + " bytes");
+    }
+
+    private static void printElapsedTime(long startTime) {
+        long stopTime = System.currentTimeMillis();
+        long elapsedTime = stopTime - startTime;
+        String hms = String.format("%02d:%02d:%02d", TimeUnit.MILLISECONDS.toHours(elapsedTime),
+                TimeUnit.MILLISECONDS.toMinutes(elapsedTime) % TimeUnit.HOURS.toMinutes(1),
+                TimeUnit.MILLISECONDS.toSeconds(elapsedTime) % TimeUnit.MINUTES.toSeconds(1));
+        System.out.println("Elapsed time : " + elapsedTime + " ms = " + hms);
+        System.out.println("############################################################");
+    }
+}
@@ -0,0 +1,237 @@
+package fr.insa;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.sql.SQLException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.*;
+
+/* long running search : the index is loaded once, then ad-hoc keyword queries are answered on a local HTTP endpoint
+ *    GET /search?q=omar sy, intouchables&k=10&trace=true : the k documents the most similar to the query, as JSON
+ *    GET /metrics : the metrics of the searches, in the Prometheus text format
+ *    the queries are analysed by the QueryAnalyzer as the main words of the requests (tokenizer, stopwords, stemmer, n-grams)
+ *    the queries are searched by a fixed pool of searchers, at most maxConcurrentSearches of them are searched or
+ *    waiting for a searcher : the next ones are answered 503 at once
+ *    a query whose search lasts more than timeout ms is answered 504, its search goes on until its end but
+ *    keeps its place in maxConcurrentSearches
+ */
+public class SearchServer {
+
+    // Local address of the endpoint
+    private static String host = "127.0.0.1";
+    private static int port = 8080;
+    // Number of threads searching the queries
+    private static int searchThreads = Runtime.getRuntime().availableProcessors();
+    // Max number of queries searched or waiting for a searcher
+    private static int maxConcurrentSearches = 64;
+    // Time (ms) given to the search of a query
+    private static long timeout = 2000;
+    // Number of documents returned when the query has no k, and max k
+    private static int defaultK = 10;
+    private static int maxK = 1000;
+
+    private Evaluator evaluator;
+    private QueryAnalyzer analyzer;
+    private Metrics metrics; //if not null, served on /metrics with the counts of the responses
+    private ExecutorService handlers; //threads of the HTTP exchanges, each one waits for the search of its query
+    private ExecutorService searchers;
+    private Semaphore searches; //a permit for each query searched or waiting for a searcher
+    private long requestTimeout;
+    private HttpServer server;
+
+    /*Arguments
+     *  evaluator : initialized, searched by several threads at the same time
+     *  analyzer : analyses the queries
+     *  metrics : if not null, the responses are counted on it and it is served on /metrics
+     */
+    public SearchServer(Evaluator evaluator, QueryAnalyzer analyzer, Metrics metrics, int searchThreads, int maxConcurrentSearches, long requestTimeout) {
+        this.evaluator = evaluator;
+        this.analyzer = analyzer;
+        this.metrics = metrics;
+        this.requestTimeout = requestTimeout;
+        searchers = Executors.newFixedThreadPool(Math.max(1, searchThreads));
+        searches = new Semaphore(Math.max(1, maxConcurrentSearches));
+        // one more handler than searches : a handler is always free to answer 503
+        handlers = Executors.newFixedThreadPool(Math.max(1, maxConcurrentSearches) + 1);
+    }
+
+    public static void main(String[] args) {
+        Database db = new Database(Settings.databaseName);
+        long startTime = System.currentTimeMillis();
+        try {
+            Metrics metrics = new Metrics();
+            Evaluator evaluator = Search.createEvaluator(db, metrics);
+            QueryAnalyzer analyzer = new QueryAnalyzer(Settings.sumRequestWeights);
+            SearchServer server = new SearchServer(evaluator, analyzer, metrics, searchThreads, maxConcurrentSearches, timeout);
+            server.start(host, port);
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                server.stop();
+                db.close();
+            }));
+            System.out.println("Index loaded in " + (System.currentTimeMillis() - startTime) + " ms, searching on http://"
+                    + host + ":" + server.getPort() + "/search?q=");
+        } catch (SQLException | IOException e) {
+            e.printStackTrace();
+            db.close();
+        }
+    }
+
+    //port 0 : any free port (see getPort)
+    public void start(String host, int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress(host, port), 0);
+        server.createContext("/search", this::handleSearch);
+        server.createContext("/metrics", this::handleMetrics);
+        server.setExecutor(handlers);
+        server.start();
+    }
+
+    //stop answering, the exchanges in progress are given one second to end
+    public void stop() {
+        server.stop(1);
+        handlers.shutdownNow();
+        searchers.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    private void handleSearch(HttpExchange exchange) throws IOException {
+        try {
+            if (!exchange.getRequestMethod().equals("GET")) {
+                send(exchange, 405, "{\"error\": \"GET only\"}");
+                return;
+            }
+            Map<String, String> parameters = getParameters(exchange.getRequestURI().getRawQuery());
+            String query = parameters.get("q");
+            if (query == null || query.trim().isEmpty()) {
+                send(exchange, 400, "{\"error\": \"missing query q\"}");
+                return;
+            }
+            int k;
+            try {
+                k = parameters.containsKey("k") ? Integer.parseInt(parameters.get("k")) : defaultK;
+            } catch (NumberFormatException e) {
+                k = -1;
+            }
+            if (k < 1 || k > maxK) {
+                send(exchange, 400, "{\"error\": \"k must be between 1 and " + maxK + "\"}");
+                return;
+            }
+            QueryTrace trace = "true".equals(parameters.get("trace")) ? new QueryTrace() : null;
+            if (!searches.tryAcquire()) {
+                send(exchange, 503, "{\"error\": \"too many queries\"}");
+                return;
+            }
+            Future<Ranking> search;
+            Map<String, Double> queryWords;
+            int numberOfResults = k;
+            try {
+                queryWords = analyzer.parseQuery(query);
+                search = searchers.submit(() -> {
+                    try {
+                        return evaluator.search(queryWords, numberOfResults, trace);
+                    } finally {
+                        searches.release(); // only when the search ends, even after a timeout
+                    }
+                });
+            } catch (RuntimeException e) {
+                searches.release();
+                throw e;
+            }
+            Ranking ranking;
+            try {
+                ranking = search.get(requestTimeout, TimeUnit.MILLISECONDS);
+            } catch (TimeoutException e) {
+                send(exchange, 504, "{\"error\": \"timeout after " + requestTimeout + " ms\"}");
+                return;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                send(exchange, 503, "{\"error\": \"server stopping\"}");
+                return;
+            } catch (ExecutionException e) {
+                e.getCause().printStackTrace();
+                send(exchange, 500, "{\"error\": \"search failed\"}");
+                return;
+            }
+            send(exchange, 200, toJson(query, queryWords, ranking, trace));
+        } catch (RuntimeException e) {
+            e.printStackTrace();
+            send(exchange, 500, "{\"error\": \"search failed\"}");
+        }
+    }
+
+    private void handleMetrics(HttpExchange exchange) throws IOException {
+        if (metrics == null) {
+            send(exchange, 404, "{\"error\": \"no metrics\"}");
+            return;
+        }
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+        byte[] body = metrics.getSnapshot(true).getBytes(StandardCharsets.UTF_8);
+        exchange.sendResponseHeaders(200, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    //response as JSON, the count of each status is kept on the metrics
+    private void send(HttpExchange exchange, int status, String json) throws IOException {
+        if (metrics != null) metrics.counter("server_responses{status=\"" + status + "\"}").increment();
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream output = exchange.getResponseBody()) {
+            output.write(body);
+        }
+    }
+
+    //parameters of a query string, decoded
+    private static Map<String, String> getParameters(String rawQuery) throws UnsupportedEncodingException {
+        Map<String, String> parameters = new HashMap<>();
+        if (rawQuery == null) return parameters;
+        for (String parameter : rawQuery.split("&")) {
+            int equals = parameter.indexOf('=');
+            if (equals < 0) continue;
+            parameters.put(URLDecoder.decode(parameter.substring(0, equals), "UTF-8"),
+                    URLDecoder.decode(parameter.substring(equals + 1), "UTF-8"));
+        }
+        return parameters;
+    }
+
+    private String toJson(String query, Map<String, Double> queryWords, Ranking ranking, QueryTrace trace) {
+        StringBuilder json = new StringBuilder("{\"query\": ").append(quote(query)).append(", \"words\": [");
+        String separator = "";
+        for (String word : queryWords.keySet()) {
+            json.append(separator).append(quote(word));
+            separator = ", ";
+        }
+        json.append("], \"results\": [");
+        for (int i = 0; i < ranking.size(); i++) {
+            if (i > 0) json.append(", ");
+            json.append("{\"document\": ").append(quote(evaluator.getDocumentName(ranking.getDocument(i))))
+                    .append(", \"score\": ").append(ranking.getScore(i)).append('}');
+        }
+        json.append(']');
+        if (trace != null) json.append(", \"trace\": ").append(trace.toJson());
+        return json.append('}').toString();
+    }
+
+    private static String quote(String text) {
+        StringBuilder quoted = new StringBuilder("\"");
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '"' || c == '\\') quoted.append('\\').append(c);
+            else if (c < 0x20) quoted.append(String.format("\\u%04x", (int) c));
+            else quoted.append(c);
+        }
+        return quoted.append('"').toString();
+    }
+}
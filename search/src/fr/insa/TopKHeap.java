@@ -0,0 +1,113 @@
+package fr.insa;
+
+//bounded min-heap keeping the k best (document id, score) pairs
+//a document is better than another one if it has a higher score or, with the same score, a lower id
+public class TopKHeap {
+
+    private int[] documents;
+    private double[] scores;
+    private int size;
+    private long numberOfOffers;
+
+    public TopKHeap(int k) {
+        documents = new int[k];
+        scores = new double[k];
+        size = 0;
+    }
+
+    /*Arguments
+     *  a document id and its score
+     */
+    /*Return
+     *  true if the document is kept on the k best ones
+     */
+    public boolean offer(int document, double score) {
+        numberOfOffers++;
+        if (size < documents.length) {
+            documents[size] = document;
+            scores[size] = score;
+            siftUp(size);
+            size++;
+            return true;
+        }
+        if (size == 0 || !isBetter(document, score, documents[0], scores[0])) return false;
+        documents[0] = document;
+        scores[0] = score;
+        siftDown(0);
+        return true;
+    }
+
+    public boolean isFull() {
+        return size == documents.length;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    //number of calls to offer
+    public long getNumberOfOffers() {
+        return numberOfOffers;
+    }
+
+    //score of the worst kept document, +infinity without capacity : no document can be kept
+    public double getMinScore() {
+        return documents.length == 0 ? Double.POSITIVE_INFINITY : scores[0];
+    }
+
+    //id of the worst kept document, -1 without capacity
+    public int getMinDocument() {
+        return documents.length == 0 ? -1 : documents[0];
+    }
+
+    //empty the heap and return the kept documents from the best to the worst
+    public Ranking toRanking() {
+        int[] rankedDocuments = new int[size];
+        double[] rankedScores = new double[size];
+        while (size > 0) {
+            rankedDocuments[size - 1] = documents[0];
+            rankedScores[size - 1] = scores[0];
+            size--;
+            documents[0] = documents[size];
+            scores[0] = scores[size];
+            siftDown(0);
+        }
+        return new Ranking(rankedDocuments, rankedScores);
+    }
+
+    static boolean isBetter(int document, double score, int otherDocument, double otherScore) {
+        int comparison = Double.compare(score, otherScore);
+        return comparison > 0 || (comparison == 0 && document < otherDocument);
+    }
+
+    private void siftUp(int i) {
+        int document = documents[i];
+        double score = scores[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!isBetter(documents[parent], scores[parent], document, score)) break;
+            documents[i] = documents[parent];
+            scores[i] = scores[parent];
+            i = parent;
+        }
+        documents[i] = document;
+        scores[i] = score;
+    }
+
+    private void siftDown(int i) {
+        int document = documents[i];
+        double score = scores[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            int right = child + 1;
+            if (right < size && isBetter(documents[child], scores[child], documents[right], scores[right])) child = right;
+            if (!isBetter(document, score, documents[child], scores[child])) break;
+            documents[i] = documents[child];
+            scores[i] = scores[child];
+            i = child;
+        }
+        documents[i] = document;
+        scores[i] = score;
+    }
+}
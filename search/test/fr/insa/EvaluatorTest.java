@@ -0,0 +1,221 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+public class EvaluatorTest {
+
+    private static final int NUMBER_OF_DOCUMENTS = 1000;
+    private static final String[] WORDS = {"cinéma", "théâtre", "opéra", "musique", "danse", "film", "acteur", "scène"};
+
+    @Test
+    public void shouldRankTheSameWithShards() throws IOException {
+        File directory = Files.createTempDirectory("segment").toFile();
+        try {
+            TermDictionary dictionary = new TermDictionary();
+            SegmentReader segment = writeSegment(directory, dictionary);
+            Map<String, Double> request = getRequest();
+            for (boolean cosinus : new boolean[]{true, false}) {
+                Evaluator evaluator = new Evaluator(null, dictionary, NUMBER_OF_DOCUMENTS, true, cosinus, false, !cosinus, false, false, true, false, true, 4);
+                evaluator.initialize(segment);
+                Ranking[] expected = {evaluator.search(request, 10), evaluator.rank(request)};
+                evaluator.setMinimumShardPostings(1);
+                Ranking[] sharded = {evaluator.search(request, 10), evaluator.rank(request)};
+                for (int r = 0; r < expected.length; r++) {
+                    assertEquals(expected[r].size(), sharded[r].size());
+                    for (int i = 0; i < expected[r].size(); i++) {
+                        assertEquals(expected[r].getDocument(i), sharded[r].getDocument(i));
+                        assertEquals(expected[r].getScore(i), sharded[r].getScore(i), 0);
+                    }
+                }
+                assertEquals(0, evaluator.search(request, 0).size());
+            }
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void shouldTraceTheWorkOfTheShards() throws IOException {
+        File directory = Files.createTempDirectory("segment").toFile();
+        try {
+            TermDictionary dictionary = new TermDictionary();
+            SegmentReader segment = writeSegment(directory, dictionary);
+            Map<String, Double> request = getRequest();
+            Evaluator evaluator = new Evaluator(null, dictionary, NUMBER_OF_DOCUMENTS, true, true, false, false, false, false, true, false, true, 4);
+            evaluator.initialize(segment);
+            Metrics metrics = new Metrics();
+            evaluator.setMetrics(metrics);
+            List<QueryTrace> traces = new ArrayList<>();
+            evaluator.setTraceListener(traces::add);
+
+            int numberOfPostings = 0;
+            Set<Integer> matched = new HashSet<>();
+            for (String word : request.keySet()) {
+                PostingsList postings = segment.getPostings(word);
+                if (postings == null) continue;
+                numberOfPostings += postings.size();
+                for (int i = 0; i < postings.size(); i++) matched.add(postings.getDocument(i));
+            }
+            evaluator.rank(request);
+            evaluator.setMinimumShardPostings(1);
+            evaluator.rank(request);
+            evaluator.search(request, 10);
+            assertEquals(3, traces.size());
+            for (int t = 0; t < 2; t++) {
+                QueryTrace trace = traces.get(t);
+                assertEquals(t == 0 ? 1 : 4, trace.getNumberOfShards());
+                assertFalse(trace.isPruned());
+                assertEquals(numberOfPostings, trace.getPostingsScanned());
+                assertEquals(matched.size(), trace.getCandidatesScored());
+                // every document once on the heap of its shard, then the shard rankings on the merge heap
+                assertEquals(t == 0 ? NUMBER_OF_DOCUMENTS : 2 * NUMBER_OF_DOCUMENTS, trace.getHeapOperations());
+            }
+            assertTrue(traces.get(2).isPruned());
+            assertTrue(traces.get(2).getCandidatesScored() <= matched.size());
+            assertEquals(3, metrics.counter("search_requests").get());
+            assertEquals(3, metrics.timer("search_latency{similarity=\"cosinus\"}").getCount());
+            assertEquals(2L * numberOfPostings + traces.get(2).getPostingsScanned(), metrics.counter("search_postings_scanned").get());
+        } finally {
+            delete(directory);
+        }
+    }
+
+    @Test
+    public void shouldRankTheSameFromTheSnapshot() throws Exception {
+        Database db = new Database("snapshot-test");
+        File snapshot = File.createTempFile("evaluator", ".snapshot");
+        try {
+            fillDatabase(db);
+            Evaluator evaluator = new Evaluator(db, new TermDictionary(), NUMBER_OF_DOCUMENTS, true, true, false, false, true, false, true, false, true, 4);
+            evaluator.initialize();
+            evaluator.writeSnapshot(snapshot.getPath());
+            Evaluator loaded = new Evaluator(null, new TermDictionary(), NUMBER_OF_DOCUMENTS, true, true, false, false, true, false, true, false, true, 4);
+            loaded.initializeFromSnapshot(snapshot.getPath(), db.getGeneration());
+            assertEquals(evaluator.getGeneration(), loaded.getGeneration());
+            String[] temporaries = snapshot.getParentFile().list((directory, name) -> name.startsWith(snapshot.getName()) && name.endsWith(".tmp"));
+            assertEquals(0, temporaries.length);
+
+            Map<String, Double> request = getRequest();
+            request.put("cinéma film", 1.0);
+            Ranking[] expected = {evaluator.search(request, 10), evaluator.rank(request)};
+            Ranking[] actual = {loaded.search(request, 10), loaded.rank(request)};
+            for (int r = 0; r < expected.length; r++) {
+                assertEquals(expected[r].size(), actual[r].size());
+                for (int i = 0; i < expected[r].size(); i++) {
+                    assertEquals(evaluator.getDocumentName(expected[r].getDocument(i)), loaded.getDocumentName(actual[r].getDocument(i)));
+                    assertEquals(expected[r].getScore(i), actual[r].getScore(i), 0);
+                }
+            }
+        } finally {
+            db.close();
+            new File("snapshot-test.db").delete();
+            snapshot.delete();
+        }
+    }
+
+    @Test
+    public void shouldRefuseAnotherSnapshot() throws Exception {
+        Database db = new Database("snapshot-test");
+        File snapshot = File.createTempFile("evaluator", ".snapshot");
+        try {
+            fillDatabase(db);
+            Evaluator evaluator = new Evaluator(db, new TermDictionary(), NUMBER_OF_DOCUMENTS, true, true, false, false, false, false, true, false, true, 1);
+            evaluator.initialize();
+            evaluator.writeSnapshot(snapshot.getPath());
+            // another weighting : other tfidf
+            Evaluator logWeighted = new Evaluator(null, new TermDictionary(), NUMBER_OF_DOCUMENTS, true, true, false, false, false, false, false, true, true, 1);
+            assertSnapshotRefused(logWeighted, snapshot, db.getGeneration());
+            // another generation : stale
+            Evaluator stale = new Evaluator(null, new TermDictionary(), NUMBER_OF_DOCUMENTS, true, true, false, false, false, false, true, false, true, 1);
+            assertSnapshotRefused(stale, snapshot, db.getGeneration() + 1);
+            byte[] bytes = Files.readAllBytes(snapshot.toPath());
+            bytes[bytes.length / 2] ^= 1;
+            Files.write(snapshot.toPath(), bytes);
+            Evaluator corrupted = new Evaluator(null, new TermDictionary(), NUMBER_OF_DOCUMENTS, true, true, false, false, false, false, true, false, true, 1);
+            assertSnapshotRefused(corrupted, snapshot, db.getGeneration());
+        } finally {
+            db.close();
+            new File("snapshot-test.db").delete();
+            snapshot.delete();
+        }
+    }
+
+    private static void assertSnapshotRefused(Evaluator evaluator, File snapshot, long generation) {
+        try {
+            evaluator.initializeFromSnapshot(snapshot.getPath(), generation);
+            fail("the snapshot should be refused");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    //documents with the words, the 2-gram "cinéma film" and their idfs
+    private static void fillDatabase(Database db) throws Exception {
+        db.deleteInvertedIndex();
+        db.createInvertedIndex();
+        db.deleteIDFTable();
+        db.createIDFTable();
+        Map<String, Integer> idfs = new HashMap<>();
+        Random random = new Random(42);
+        db.prepareInvertedIndexStatement();
+        for (int document = 0; document < NUMBER_OF_DOCUMENTS; document++) {
+            List<String> words = new ArrayList<>();
+            for (String word : WORDS) {
+                if (random.nextInt(3) == 0) words.add(word);
+            }
+            if (words.contains("cinéma") && words.contains("film")) words.add("cinéma film");
+            if (words.isEmpty()) words.add("scène");
+            for (String word : words) {
+                db.addToInvertedIndex(word, "D" + document + ".html", 1 + random.nextInt(3));
+                idfs.merge(word, 1, Integer::sum);
+            }
+        }
+        db.executePreparedStatement();
+        db.prepareIDFStatement();
+        for (Map.Entry<String, Integer> wordIdf : idfs.entrySet()) {
+            db.addToIDFTable(wordIdf.getKey(), wordIdf.getValue());
+        }
+        db.executePreparedStatement();
+    }
+
+    private static Map<String, Double> getRequest() {
+        Map<String, Double> request = new HashMap<>();
+        request.put("cinéma", 1.0);
+        request.put("film", 0.5);
+        request.put("acteur", 0.5);
+        request.put("inconnu", 1.0);
+        return request;
+    }
+
+    private static SegmentReader writeSegment(File directory, TermDictionary dictionary) throws IOException {
+        Weighting weighting = new Weighting(true, false, true, false);
+        SegmentWriter writer = new SegmentWriter(directory.getPath(), dictionary, weighting);
+        Random random = new Random(42);
+        for (int document = 0; document < NUMBER_OF_DOCUMENTS; document++) {
+            writer.addDocument("D" + document + ".html");
+            for (int w = 0; w < WORDS.length; w++) {
+                // few distinct frequencies : many ties between the documents
+                if (random.nextInt(3) == 0) writer.addPosting(dictionary.intern(WORDS[w]), document, 1 + random.nextInt(3));
+            }
+        }
+        writer.write(NUMBER_OF_DOCUMENTS, 1);
+        return new SegmentReader(directory.getPath());
+    }
+
+    private static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
@@ -0,0 +1,41 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class PostingsCacheTest {
+
+    private static PostingsList postings(int size) {
+        PostingsList postings = new PostingsList(size);
+        for (int document = 0; document < size; document++) {
+            postings.add(document, 1.0);
+        }
+        return postings;
+    }
+
+    @Test
+    public void shouldEvictTheLeastRecentlyUsedPostingsOverTheBudget() {
+        long size = postings(100).getMemorySize();
+        PostingsCache cache = new PostingsCache(2 * size + size / 2);
+        cache.put("cinéma", postings(100));
+        cache.put("théâtre", postings(100));
+        assertNotNull(cache.get("cinéma"));
+        cache.put("opéra", postings(100));
+        assertEquals(2, cache.size());
+        assertEquals(1, cache.getEvictions());
+        assertEquals(2 * size, cache.getBytes());
+        assertNull(cache.get("théâtre"));
+        assertNotNull(cache.get("opéra"));
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+
+    @Test
+    public void shouldNotKeepPostingsBiggerThanTheBudget() {
+        PostingsCache cache = new PostingsCache(postings(10).getMemorySize());
+        cache.put("cinéma", postings(1000));
+        assertEquals(0, cache.size());
+        assertEquals(0, cache.getBytes());
+    }
+}
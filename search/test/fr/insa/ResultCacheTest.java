@@ -0,0 +1,71 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+public class ResultCacheTest {
+
+    private static Ranking ranking(int size) {
+        int[] documents = new int[size];
+        double[] scores = new double[size];
+        for (int i = 0; i < size; i++) {
+            documents[i] = i;
+            scores[i] = size - i;
+        }
+        return new Ranking(documents, scores);
+    }
+
+    @Test
+    public void shouldGiveTheSameKeyWhateverTheOrderOfTheWords() {
+        Map<String, Double> request = new LinkedHashMap<>();
+        request.put("cinéma", 1.0);
+        request.put("film", 0.5);
+        Map<String, Double> other = new LinkedHashMap<>();
+        other.put("film", 0.5);
+        other.put("cinéma", 1.0);
+        assertEquals(ResultCache.getKey(request, "cosinus"), ResultCache.getKey(other, "cosinus"));
+        assertNotEquals(ResultCache.getKey(request, "cosinus"), ResultCache.getKey(request, "dice"));
+        other.put("film", 1.0);
+        assertNotEquals(ResultCache.getKey(request, "cosinus"), ResultCache.getKey(other, "cosinus"));
+    }
+
+    @Test
+    public void shouldGiveTheFirstDocumentsOfACachedRanking() {
+        ResultCache cache = new ResultCache(100);
+        assertNull(cache.get("Q1", 5, 1));
+        cache.put("Q1", ranking(10), 1);
+        Ranking first = cache.get("Q1", 5, 1);
+        assertEquals(5, first.size());
+        assertEquals(4, first.getDocument(4));
+        assertNull(cache.get("Q1", 25, 1)); // not enough documents
+        assertEquals(1, cache.getHits());
+        assertEquals(2, cache.getMisses());
+    }
+
+    @Test
+    public void shouldEvictTheLeastRecentlyUsedRankings() {
+        ResultCache cache = new ResultCache(25);
+        cache.put("Q1", ranking(10), 1);
+        cache.put("Q2", ranking(10), 1);
+        assertNotNull(cache.get("Q1", 10, 1));
+        cache.put("Q3", ranking(10), 1);
+        assertEquals(2, cache.size());
+        assertNull(cache.get("Q2", 10, 1));
+        assertNotNull(cache.get("Q1", 10, 1));
+        assertNotNull(cache.get("Q3", 10, 1));
+        cache.put("Q4", ranking(30), 1); // bigger than the cache
+        assertNull(cache.get("Q4", 1, 1));
+    }
+
+    @Test
+    public void shouldDropTheRankingsOfAnotherGeneration() {
+        ResultCache cache = new ResultCache(100);
+        cache.put("Q1", ranking(10), 1);
+        assertNull(cache.get("Q1", 10, 2));
+        assertEquals(0, cache.size());
+    }
+}
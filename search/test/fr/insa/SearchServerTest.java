@@ -0,0 +1,94 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.HttpURLConnection;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Random;
+import java.util.Scanner;
+
+import static org.junit.Assert.*;
+
+public class SearchServerTest {
+
+    private static final int NUMBER_OF_DOCUMENTS = 100;
+    private static final String[] WORDS = {"cinéma", "théâtre", "opéra", "musique", "danse", "film", "acteur", "scène"};
+
+    @Test
+    public void shouldRankTheParsedQuery() throws IOException {
+        File directory = Files.createTempDirectory("segment").toFile();
+        SearchServer server = null;
+        try {
+            Evaluator evaluator = createEvaluator(directory);
+            QueryAnalyzer analyzer = new QueryAnalyzer(false);
+            Metrics metrics = new Metrics();
+            evaluator.setMetrics(metrics);
+            server = new SearchServer(evaluator, analyzer, metrics, 2, 4, 10000);
+            server.start("127.0.0.1", 0);
+
+            Map<String, Double> query = analyzer.parseQuery("les Films, cinéma");
+            assertTrue(query.containsKey(new Stemmer().stem("films")));
+            assertFalse(query.containsKey("les")); //stopword of in/
+            Ranking expected = evaluator.search(query, 5);
+            String response = get(server, "/search?q=les+Films%2C+cin%C3%A9ma&k=5", 200);
+            int from = 0;
+            for (int i = 0; i < expected.size(); i++) {
+                int found = response.indexOf("\"" + evaluator.getDocumentName(expected.getDocument(i)) + "\"", from);
+                assertTrue(found > from);
+                from = found;
+            }
+            assertTrue(get(server, "/search?q=film&trace=true", 200).contains("\"trace\": {"));
+            get(server, "/search?k=5", 400);
+            get(server, "/search?q=film&k=0", 400);
+            assertEquals(2, metrics.counter("server_responses{status=\"200\"}").get());
+            assertEquals(2, metrics.counter("server_responses{status=\"400\"}").get());
+            assertTrue(get(server, "/metrics", 200).contains("search_requests 3"));
+        } finally {
+            if (server != null) server.stop();
+            delete(directory);
+        }
+    }
+
+    private static String get(SearchServer server, String path, int status) throws IOException {
+        HttpURLConnection connection = (HttpURLConnection) new URL("http://127.0.0.1:" + server.getPort() + path).openConnection();
+        assertEquals(status, connection.getResponseCode());
+        try (InputStream input = status == 200 ? connection.getInputStream() : connection.getErrorStream();
+             Scanner scanner = new Scanner(input, StandardCharsets.UTF_8.name()).useDelimiter("\\A")) {
+            return scanner.hasNext() ? scanner.next() : "";
+        }
+    }
+
+    //segment of the stemmed words, as written by the indexer
+    private static Evaluator createEvaluator(File directory) throws IOException {
+        TermDictionary dictionary = new TermDictionary();
+        Stemmer stemmer = new Stemmer();
+        SegmentWriter writer = new SegmentWriter(directory.getPath(), dictionary, new Weighting(true, false, true, false));
+        Random random = new Random(42);
+        for (int document = 0; document < NUMBER_OF_DOCUMENTS; document++) {
+            writer.addDocument("D" + document + ".html");
+            for (int w = 0; w < WORDS.length; w++) {
+                if (random.nextInt(3) == 0) writer.addPosting(dictionary.intern(stemmer.stem(WORDS[w])), document, 1 + random.nextInt(3));
+            }
+        }
+        writer.write(NUMBER_OF_DOCUMENTS, 1);
+        Evaluator evaluator = new Evaluator(null, dictionary, NUMBER_OF_DOCUMENTS, true, true, false, false, false, false, true, false, true, 2);
+        evaluator.initialize(new SegmentReader(directory.getPath()));
+        return evaluator;
+    }
+
+    private static void delete(File directory) {
+        File[] files = directory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        directory.delete();
+    }
+}
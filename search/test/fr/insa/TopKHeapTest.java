@@ -0,0 +1,43 @@
+package fr.insa;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+public class TopKHeapTest {
+
+    @Test
+    public void shouldKeepTheBestScores() {
+        TopKHeap heap = new TopKHeap(2);
+        heap.offer(0, 0.5);
+        heap.offer(1, 2.0);
+        heap.offer(2, 1.0);
+        Ranking ranking = heap.toRanking();
+        assertEquals(2, ranking.size());
+        assertEquals(1, ranking.getDocument(0));
+        assertEquals(2, ranking.getDocument(1));
+        assertEquals(1.0, ranking.getScore(1), 0.0);
+    }
+
+    @Test
+    public void shouldPreferLowerIdWithSameScore() {
+        TopKHeap heap = new TopKHeap(2);
+        heap.offer(3, 1.0);
+        heap.offer(1, 1.0);
+        assertTrue(heap.offer(2, 1.0));
+        assertEquals(2, heap.getMinDocument());
+        assertFalse(heap.offer(4, 1.0));
+        Ranking ranking = heap.toRanking();
+        assertEquals(1, ranking.getDocument(0));
+        assertEquals(2, ranking.getDocument(1));
+    }
+
+    @Test
+    public void shouldNotKeepAnythingWithoutCapacity() {
+        TopKHeap heap = new TopKHeap(0);
+        assertFalse(heap.offer(0, 1.0));
+        assertTrue(heap.isFull());
+        assertEquals(Double.POSITIVE_INFINITY, heap.getMinScore(), 0.0);
+        assertEquals(0, heap.toRanking().size());
+    }
+}